@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.dto;
+
+import java.util.Map;
+
+public class ExecutionSummaryDTO {
+    public String executionId;
+    public Long numberIssues;
+    public Long totalEffort;
+    public Map<String, Long> numberIssuesPerCategory;
+    public Map<String, Long> numberIssuesPerRule;
+    public Map<String, Long> numberIssuesPerFile;
+    public Map<String, Long> numberIssuesPerTag;
+    public Map<String, Long> numberIssuesPerEffort;
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph;
+
+import io.tackle.windup.rest.dto.AnalysisDTO;
+import io.tackle.windup.rest.dto.AnalysisStatusDTO;
+import io.tackle.windup.rest.graph.model.AnalysisModel;
+import io.tackle.windup.rest.mapper.AnalysisMapper;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the status and the details of the most recently used analyses so that the endpoints polled
+ * by the UI don't have to query the central graph.
+ * The entries are written through by whoever changes an analysis, once the change has been committed,
+ * and loaded from the central graph only when missing.
+ * Each change stores an increasing version in the analysis so that an entry is replaced only by a newer one,
+ * whatever the order the threads put them in.
+ */
+@ApplicationScoped
+public class AnalysisCache {
+
+    @ConfigProperty(defaultValue = "1000", name = "io.tackle.windup.rest.analysis-cache.size")
+    int size;
+
+    @Inject
+    AnalysisMapper analysisMapper;
+
+    private Map<Long, Entry> entries;
+    // based on the clock so that the versions keep increasing across restarts
+    private final AtomicLong lastVersion = new AtomicLong();
+
+    public static class Entry {
+        public final long analysisId;
+        public final long version;
+        public final AnalysisStatusDTO status;
+        public final AnalysisDTO analysis;
+
+        private Entry(long analysisId, long version, AnalysisStatusDTO status, AnalysisDTO analysis) {
+            this.analysisId = analysisId;
+            this.version = version;
+            this.status = status;
+            this.analysis = analysis;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        // access-ordered so that the least recently used analysis is the one evicted
+        entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > size;
+            }
+        });
+    }
+
+    /**
+     * To be invoked before committing the changes to the analysis, within the same transaction,
+     * and to be provided to {@link #put(Entry)} once the commit succeeded
+     */
+    public Entry toEntry(AnalysisModel analysisModel) {
+        final long version = lastVersion.accumulateAndGet(System.currentTimeMillis(), (last, now) -> Math.max(last + 1, now));
+        analysisModel.setVersion(version);
+        return newEntry(analysisModel, version);
+    }
+
+    /**
+     * Replaces the cached entry only if the provided one is newer
+     */
+    public void put(Entry entry) {
+        entries.merge(entry.analysisId, entry, AnalysisCache::newer);
+    }
+
+    /**
+     * Loads the entry from the analysis just read from the central graph
+     * unless a newer one has been written by a change committed in the meantime
+     */
+    public Entry load(AnalysisModel analysisModel) {
+        final Long version = analysisModel.getVersion();
+        final Entry entry = newEntry(analysisModel, version != null ? version : 0L);
+        return entries.merge(entry.analysisId, entry, AnalysisCache::newer);
+    }
+
+    private Entry newEntry(AnalysisModel analysisModel, long version) {
+        return new Entry(analysisModel.getAnalysisId(), version, AnalysisStatusDTO.withAnalysisModel(analysisModel), analysisMapper.toAnalysisDTO(analysisModel));
+    }
+
+    private static Entry newer(Entry previous, Entry entry) {
+        return entry.version > previous.version ? entry : previous;
+    }
+
+    public AnalysisStatusDTO getStatus(long analysisId) {
+        final Entry entry = entries.get(analysisId);
+        return entry != null ? entry.status : null;
+    }
+
+    public AnalysisDTO getAnalysis(long analysisId) {
+        final Entry entry = entries.get(analysisId);
+        return entry != null ? entry.analysis : null;
+    }
+}
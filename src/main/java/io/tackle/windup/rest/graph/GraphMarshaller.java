@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph;
+
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.windup.graph.model.WindupFrame;
+import org.jboss.windup.graph.model.WindupVertexFrame;
+import org.jboss.windup.web.addons.websupport.rest.graph.GraphResource;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serializes the vertices of the central graph into the maps returned by the endpoints.
+ */
+@ApplicationScoped
+public class GraphMarshaller {
+
+    @ConfigProperty(defaultValue = "true", name = "io.tackle.windup.rest.marshalling.deduplicate-vertices")
+    boolean deduplicateVertices;
+
+    @ConfigProperty(name = "io.tackle.windup.rest.marshalling.whitelisted-labels")
+    Optional<List<String>> whitelistedLabels;
+
+    @ConfigProperty(name = "io.tackle.windup.rest.marshalling.blacklisted-labels")
+    Optional<List<String>> blacklistedLabels;
+
+    @ConfigProperty(name = "io.tackle.windup.rest.marshalling.blacklisted-properties")
+    Optional<List<String>> blacklistedProperties;
+
+    /**
+     * Heavily inspired from https://github.com/windup/windup-web/blob/8f81bc56d34756ff3a9261edfccbe9b44af40fc2/addons/web-support/impl/src/main/java/org/jboss/windup/web/addons/websupport/rest/graph/AbstractGraphResource.java#L203
+     * @param frames
+     * @param depth
+     * @return
+     */
+    public List<Map<String, Object>> frameIterableToResult(Iterable<? extends WindupVertexFrame> frames, int depth)
+    {
+        GraphMarshallingContext ctx = createGraphMarshallingContext(depth);
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (WindupVertexFrame frame : frames)
+        {
+            result.add(convertToMap(ctx, frame.getElement()));
+        }
+        return result;
+    }
+
+    public GraphMarshallingContext createGraphMarshallingContext(int depth) {
+        return createGraphMarshallingContext(depth, List.of());
+    }
+
+    /**
+     * @param fields the only properties and edge labels to be serialized or, if empty, all of them
+     */
+    public GraphMarshallingContext createGraphMarshallingContext(int depth, Collection<String> fields) {
+        // the depth includes the vertex itself
+        return new GraphMarshallingContext(depth - 1, deduplicateVertices, whitelistedLabels.orElse(List.of()),
+                blacklistedLabels.orElse(List.of()), blacklistedProperties.orElse(List.of()), fields);
+    }
+
+    /**
+     * Serializes a top-level element of the response: it's always serialized complete while the vertices reached
+     * through its edges that have already been serialized within the same response are serialized only with their ID.
+     */
+    public Map<String, Object> convertToMap(GraphMarshallingContext ctx, Vertex vertex)
+    {
+        return vertexToMap(ctx, vertex, true);
+    }
+
+    private Map<String, Object> vertexToMap(GraphMarshallingContext ctx, Vertex vertex, boolean topLevel)
+    {
+        Map<String, Object> result = new HashMap<>();
+
+        // Spare CPU cycles, save the planet. Visited vertices will only contain _id.
+        if (ctx.deduplicateVertices && !ctx.addVisited(vertex) && !topLevel) {
+            result.put(GraphResource.KEY_ID, vertex.id());
+            return result;
+        }
+
+        result.put(GraphResource.TYPE, GraphResource.TYPE_VERTEX);
+        result.put(GraphResource.KEY_ID, vertex.id());
+
+        // with the fields, only the requested properties are serialized but, with the default
+        // `query.fast-property = true`, JanusGraph still retrieves all of them in a single backend read
+        final List<Object> types = new ArrayList<>();
+        Iterator<VertexProperty<Object>> properties = vertex.properties(ctx.fields);
+        while (properties.hasNext()) {
+            VertexProperty<Object> property = properties.next();
+            String key = property.key();
+            if (ctx.blacklistedProperties.contains(key))
+                continue;
+
+            if (WindupFrame.TYPE_PROP.equals(key)) {
+                types.add(property.value());
+            } else {
+                result.put(key, property.value());
+            }
+        }
+        if (!types.isEmpty()) result.put(WindupFrame.TYPE_PROP, types);
+
+        // beyond the depth, only the whitelisted edges are followed and only while deduplicating
+        // since it's what prevents the cycles in the graph from being followed endlessly
+        if (ctx.remainingDepth > 0 || (ctx.deduplicateVertices && !ctx.whitelistedLabels.isEmpty())) {
+            Map<String, Object> outVertices = new HashMap<>();
+            addEdges(ctx, vertex, Direction.OUT, outVertices);
+            if (ctx.remainingDepth > 0 || !outVertices.isEmpty()) result.put(GraphResource.VERTICES_OUT, outVertices);
+        }
+
+        return result;
+    }
+
+    private void addEdges(GraphMarshallingContext ctx, Vertex vertex, Direction direction, Map<String, Object> result)
+    {
+        final Iterator<Edge> edges = vertex.edges(direction, ctx.fields);
+
+        while (edges.hasNext())
+        {
+            Edge edge = edges.next();
+            String label = edge.label();
+
+            // If the edge isn't to be followed at all or we aren't recursing any further, then just skip
+            if (ctx.blacklistedLabels.contains(label) || (ctx.remainingDepth <= 0 && !ctx.whitelistedLabels.contains(label)))
+                continue;
+
+            Map<String, Object> edgeDetails = (Map<String, Object>) result.get(label);
+            final List<Map<String, Object>> linkedVertices;
+            if (edgeDetails == null)
+            {
+                edgeDetails = new HashMap<>();
+                edgeDetails.put(GraphResource.DIRECTION, direction.toString());
+                result.put(label, edgeDetails);
+
+                linkedVertices = new ArrayList<>();
+                edgeDetails.put(GraphResource.VERTICES, linkedVertices);
+            }
+            else
+            {
+                linkedVertices = (List<Map<String, Object>>) edgeDetails.get(GraphResource.VERTICES);
+            }
+
+            Vertex otherVertex = direction == Direction.OUT ? edge.inVertex() : edge.outVertex();
+
+            // Recursion
+            ctx.remainingDepth--;
+            Map<String, Object> otherVertexMap = vertexToMap(ctx, otherVertex, false);
+            ctx.remainingDepth++;
+
+            // Add edge properties if any
+            if (!edge.keys().isEmpty())
+            {
+                Map<String, Object> edgeData = new HashMap<>();
+                edge.keys().forEach(key -> edgeData.put(key, edge.property(key).orElse(null)));
+                otherVertexMap.put(GraphResource.EDGE_DATA, edgeData);
+
+                /// Add the edge frame's @TypeValue.  Workaround until PR #1063.
+                //edgeData.put(WindupFrame.TYPE_PROP, graphTypeManager.resolveTypes(edge, WindupEdgeFrame.class));
+            }
+
+            linkedVertices.add(otherVertexMap);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph;
+
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps the state of the serialization of vertices into a single response.
+ * Inspired from https://github.com/windup/windup-web/blob/8f81bc56d34756ff3a9261edfccbe9b44af40fc2/addons/web-support/impl/src/main/java/org/jboss/windup/web/addons/websupport/rest/graph/GraphMarshallingContext.java
+ */
+public class GraphMarshallingContext {
+    /**
+     * How many more levels of edges are going to be followed
+     */
+    public int remainingDepth;
+    /**
+     * If true, a vertex already serialized within the same response is serialized again only with its ID,
+     * unless it's a top-level element
+     */
+    public final boolean deduplicateVertices;
+    /**
+     * The edges with these labels are followed even beyond the depth
+     */
+    public final Set<String> whitelistedLabels;
+    /**
+     * The edges with these labels are never followed
+     */
+    public final Set<String> blacklistedLabels;
+    /**
+     * These properties are never serialized
+     */
+    public final Set<String> blacklistedProperties;
+    /**
+     * The only properties and edge labels to be serialized or, if empty, all of them
+     */
+    public final String[] fields;
+
+    private final Set<Object> visitedVertices = new HashSet<>();
+
+    public GraphMarshallingContext(int depth, boolean deduplicateVertices, Collection<String> whitelistedLabels,
+                                   Collection<String> blacklistedLabels, Collection<String> blacklistedProperties,
+                                   Collection<String> fields) {
+        this.remainingDepth = depth;
+        this.deduplicateVertices = deduplicateVertices;
+        this.whitelistedLabels = Set.copyOf(whitelistedLabels);
+        this.blacklistedLabels = Set.copyOf(blacklistedLabels);
+        this.blacklistedProperties = Set.copyOf(blacklistedProperties);
+        this.fields = Set.copyOf(fields).toArray(new String[0]);
+    }
+
+    /**
+     * @return true if the vertex had not been visited yet
+     */
+    public boolean addVisited(Vertex vertex) {
+        return visitedVertices.add(vertex.id());
+    }
+}
@@ -22,15 +22,21 @@ import com.syncleus.ferma.framefactories.annotation.MethodHandler;
 import com.syncleus.ferma.typeresolvers.PolymorphicTypeResolver;
 import io.quarkus.runtime.Startup;
 import io.tackle.windup.rest.graph.model.AnalysisModel;
+import io.tackle.windup.rest.graph.model.ExecutionSummaryModel;
 import io.tackle.windup.rest.graph.model.WindupExecutionModel;
 import io.tackle.windup.rest.resources.WindupBroadcasterResource;
+import io.tackle.windup.rest.util.LongLongHashMap;
 import org.apache.commons.configuration2.ConfigurationUtils;
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
@@ -38,7 +44,12 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.janusgraph.core.Cardinality;
 import org.janusgraph.core.JanusGraph;
 import org.janusgraph.core.JanusGraphFactory;
+import org.janusgraph.core.JanusGraphIndexQuery;
+import org.janusgraph.core.JanusGraphTransaction;
+import org.janusgraph.core.JanusGraphVertex;
 import org.janusgraph.core.PropertyKey;
+import org.janusgraph.core.TransactionBuilder;
+import org.janusgraph.core.schema.JanusGraphIndex;
 import org.janusgraph.core.schema.JanusGraphManagement;
 import org.janusgraph.core.schema.Mapping;
 import org.janusgraph.util.system.ConfigurationUtil;
@@ -56,8 +67,10 @@ import org.jboss.windup.graph.model.WindupConfigurationModel;
 import org.jboss.windup.graph.model.WindupEdgeFrame;
 import org.jboss.windup.graph.model.WindupFrame;
 import org.jboss.windup.graph.model.WindupVertexFrame;
+import org.jboss.windup.graph.model.resource.FileModel;
 import org.jboss.windup.reporting.category.IssueCategoryModel;
 import org.jboss.windup.reporting.model.EffortReportModel;
+import org.jboss.windup.reporting.model.InlineHintModel;
 import org.jboss.windup.rules.apps.java.model.WindupJavaConfigurationModel;
 import org.jboss.windup.util.FurnaceCompositeClassLoader;
 import org.jboss.windup.web.services.model.WindupExecution;
@@ -69,15 +82,36 @@ import javax.inject.Inject;
 import javax.ws.rs.NotFoundException;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static io.tackle.windup.rest.resources.WindupResource.PATH_PARAM_ANALYSIS_ID;
 
@@ -86,6 +120,45 @@ import static io.tackle.windup.rest.resources.WindupResource.PATH_PARAM_ANALYSIS
 public class GraphService {
     private static final Logger LOG = Logger.getLogger(GraphService.class);
     private static final String DEFAULT_CENTRAL_GRAPH_CONFIGURATION_FILE_NAME = "src/main/resources/centralGraphConfiguration.properties";
+    /**
+     * Tags the vertices of the analysis subgraphs with the generation they belong to:
+     * readers only see the generation the {@link AnalysisModel#GENERATION} property points to
+     */
+    public static final String GENERATION = "analysisGeneration";
+    /**
+     * The generation of the deleted analyses, followed by the time of the deletion:
+     * no vertex has it so all the analysis vertices become stale
+     */
+    static final String TOMBSTONE_GENERATION = "tombstone";
+    // well below the 1024 clauses a Lucene boolean query accepts by default
+    private static final int MAX_QUERY_GENERATIONS = 512;
+    private static final long NOT_IMPORTED = -1L;
+    private static final String MERGE_PROFILE_FULL = "full";
+    private static final String MERGE_PROFILE_SLIM = "slim";
+    /**
+     * Keys copied into the issues from their adjacent vertices so that the issues can be filtered with the index
+     */
+    public static final String ISSUE_CATEGORY = "issueCategory";
+    public static final String ISSUE_RULE_ID = "issueRuleId";
+    public static final String ISSUE_FILE = "issueFile";
+    public static final String ISSUE_EFFORT = "issueEffort";
+    public static final String ISSUE_TITLE = "issueTitle";
+    public static final String ISSUE_MESSAGE = "issueMessage";
+    // the rule ID full-text searched, besides the one filtered by value
+    public static final String ISSUE_RULE_ID_TEXT = "issueRuleIdText";
+    /**
+     * The ID of the issue vertex, copied into an indexed key that only the issues have: being unique and never
+     * changed, it sorts the issues within the index query so that a page starts right after the previous one
+     */
+    public static final String ISSUE_ORDINAL = "issueOrdinal";
+    public static final String FACET_CATEGORY = "category";
+    public static final String FACET_RULE_ID = "ruleId";
+    public static final String FACET_FILE = "file";
+    // properties set by the merge that are not part of the analysis graph
+    private static final Set<String> MERGE_PROPERTY_KEYS = Set.of(PATH_PARAM_ANALYSIS_ID, GENERATION, ISSUE_CATEGORY, ISSUE_RULE_ID, ISSUE_FILE, ISSUE_EFFORT, ISSUE_TITLE, ISSUE_MESSAGE, ISSUE_RULE_ID_TEXT, ISSUE_ORDINAL);
+    private static final List<String> CONFIGURATION_MODEL_TYPES = List.of(
+            WindupTypeResolver.getTypeValue(WindupConfigurationModel.class),
+            WindupTypeResolver.getTypeValue(WindupJavaConfigurationModel.class));
 
     @ConfigProperty(defaultValue = DEFAULT_CENTRAL_GRAPH_CONFIGURATION_FILE_NAME, name = "io.tackle.windup.rest.graph.central.properties.file.path")
     File centralGraphProperties;
@@ -93,11 +166,60 @@ public class GraphService {
     @ConfigProperty(defaultValue= "/opt/windup/central-graph", name = "io.tackle.windup.rest.central-graph.base.path")
     String centralGraphBasePath;
 
+    @ConfigProperty(defaultValue = "10000", name = "io.tackle.windup.rest.graph.merge.commit-size")
+    int mergeCommitSize;
+
+    @ConfigProperty(defaultValue = "true", name = "io.tackle.windup.rest.graph.merge.batch-loading")
+    boolean mergeBatchLoading;
+
+    @ConfigProperty(defaultValue = "4", name = "io.tackle.windup.rest.graph.merge.threads")
+    int mergeThreads;
+
+    @ConfigProperty(defaultValue = "1000000", name = "io.tackle.windup.rest.graph.merge.off-heap-threshold")
+    int mergeOffHeapThreshold;
+
+    @ConfigProperty(defaultValue = "false", name = "io.tackle.windup.rest.graph.merge.delta")
+    boolean mergeDelta;
+
+    @ConfigProperty(defaultValue = MERGE_PROFILE_FULL, name = "io.tackle.windup.rest.graph.merge.profile")
+    String mergeProfile;
+
+    @ConfigProperty(defaultValue = "InlineHintModel,EffortReportModel,IssueCategoryModel,WindupConfigurationModel,WindupJavaConfigurationModel",
+            name = "io.tackle.windup.rest.graph.merge.slim.types")
+    List<String> mergeSlimTypes;
+
+    @ConfigProperty(defaultValue = "10", name = "io.tackle.windup.rest.graph.summary.top-size")
+    int summaryTopSize;
+
+    @ConfigProperty(defaultValue = "50", name = "io.tackle.windup.rest.graph.facets.top-size")
+    int facetsTopSize;
+
+    @ConfigProperty(defaultValue = "60", name = "io.tackle.windup.rest.graph.generation.sweep-interval")
+    int generationSweepInterval;
+
+    @ConfigProperty(defaultValue = "1000", name = "io.tackle.windup.rest.graph.generation.sweep-batch-size")
+    int generationSweepBatchSize;
+
+    @ConfigProperty(defaultValue = "100", name = "io.tackle.windup.rest.graph.generation.sweep-batch-delay")
+    long generationSweepBatchDelay;
+
+    @ConfigProperty(defaultValue = "10", name = "io.tackle.windup.rest.issues.search.max-batches")
+    int searchMaxBatches;
+
     @Inject
     WindupBroadcasterResource windupBroadcasterResource;
 
+    @Inject
+    IssuesSnapshotService issuesSnapshotService;
+
     private JanusGraph janusGraph;
     private FramedGraph framedGraph;
+    private ExecutorService mergeImportExecutor;
+    private ScheduledExecutorService generationSweeper;
+    // generations being imported that are not yet the current generation of any analysis
+    private final Set<String> inFlightGenerations = ConcurrentHashMap.newKeySet();
+    // guards the check of the tombstone and the publishing of a generation against a concurrent deletion
+    private final Object publishLock = new Object();
 
     @PostConstruct
     void init() throws Exception {
@@ -106,10 +228,19 @@ public class GraphService {
         final FurnaceCompositeClassLoader compositeClassLoader = new FurnaceCompositeClassLoader(Thread.currentThread().getContextClassLoader(), Collections.emptyList());
         final AnnotationFrameFactory frameFactory = new WindupApiAnnotationFrameFactory(Thread.currentThread().getContextClassLoader(), reflections, getMethodHandlers());
         framedGraph = new DelegatingFramedGraph<>(janusGraph, frameFactory, new WindupTypeResolver(compositeClassLoader));
+        backfillAnalysisModels();
+        backfillGenerations();
+        mergeImportExecutor = Executors.newFixedThreadPool(mergeThreads);
+        generationSweeper = Executors.newSingleThreadScheduledExecutor();
+        // the issues can be many so they're backfilled in background, before the first sweep
+        generationSweeper.execute(this::backfillIssueKeys);
+        generationSweeper.scheduleWithFixedDelay(this::sweepStaleGenerations, generationSweepInterval, generationSweepInterval, TimeUnit.SECONDS);
     }
 
     @PreDestroy
     void destroy() throws Exception {
+        mergeImportExecutor.shutdownNow();
+        generationSweeper.shutdownNow();
         LOG.infof("Is central Janus Graph transaction open? %b", janusGraph.tx().isOpen());
         LOG.infof("Closing Central Janus Graph properties file %s", centralGraphProperties);
         janusGraph.close();
@@ -149,6 +280,66 @@ public class GraphService {
 
             janusGraphManagement.commit();
         }
+        final JanusGraphManagement generationManagement = janusGraph.openManagement();
+        if (!generationManagement.containsPropertyKey(GENERATION)) {
+            // a new key added to an existing index is immediately enabled since there's no data to be reindexed
+            final PropertyKey generationPropertyKey = generationManagement.makePropertyKey(GENERATION).dataType(String.class).cardinality(Cardinality.SINGLE).make();
+            generationManagement.addIndexKey(generationManagement.getGraphIndex(PATH_PARAM_ANALYSIS_ID), generationPropertyKey, Mapping.STRING.asParameter());
+            generationManagement.commit();
+        } else {
+            generationManagement.rollback();
+        }
+        final JanusGraphManagement issueManagement = janusGraph.openManagement();
+        if (!issueManagement.containsPropertyKey(ISSUE_CATEGORY)) {
+            final JanusGraphIndex analysisIdIndex = issueManagement.getGraphIndex(PATH_PARAM_ANALYSIS_ID);
+            for (String key : List.of(ISSUE_CATEGORY, ISSUE_RULE_ID, ISSUE_FILE)) {
+                issueManagement.addIndexKey(analysisIdIndex, issueManagement.makePropertyKey(key).dataType(String.class).cardinality(Cardinality.SINGLE).make(), Mapping.STRING.asParameter());
+            }
+            issueManagement.addIndexKey(analysisIdIndex, issueManagement.makePropertyKey(ISSUE_EFFORT).dataType(Integer.class).cardinality(Cardinality.SINGLE).make());
+            issueManagement.commit();
+        } else {
+            issueManagement.rollback();
+        }
+        final JanusGraphManagement searchManagement = janusGraph.openManagement();
+        if (!searchManagement.containsPropertyKey(ISSUE_TITLE)) {
+            final JanusGraphIndex analysisIdIndex = searchManagement.getGraphIndex(PATH_PARAM_ANALYSIS_ID);
+            for (String key : List.of(ISSUE_TITLE, ISSUE_MESSAGE)) {
+                searchManagement.addIndexKey(analysisIdIndex, searchManagement.makePropertyKey(key).dataType(String.class).cardinality(Cardinality.SINGLE).make(), Mapping.TEXT.asParameter());
+            }
+            searchManagement.commit();
+        } else {
+            searchManagement.rollback();
+        }
+        // the rule ID key keeps the mapping it has been created with and the full-text search gets its own key
+        final JanusGraphManagement ruleSearchManagement = janusGraph.openManagement();
+        if (!ruleSearchManagement.containsPropertyKey(ISSUE_RULE_ID_TEXT)) {
+            ruleSearchManagement.addIndexKey(ruleSearchManagement.getGraphIndex(PATH_PARAM_ANALYSIS_ID),
+                    ruleSearchManagement.makePropertyKey(ISSUE_RULE_ID_TEXT).dataType(String.class).cardinality(Cardinality.SINGLE).make(), Mapping.TEXT.asParameter());
+            ruleSearchManagement.commit();
+        } else {
+            ruleSearchManagement.rollback();
+        }
+        final JanusGraphManagement ordinalManagement = janusGraph.openManagement();
+        if (!ordinalManagement.containsPropertyKey(ISSUE_ORDINAL)) {
+            ordinalManagement.addIndexKey(ordinalManagement.getGraphIndex(PATH_PARAM_ANALYSIS_ID),
+                    ordinalManagement.makePropertyKey(ISSUE_ORDINAL).dataType(Long.class).cardinality(Cardinality.SINGLE).make());
+            ordinalManagement.commit();
+        } else {
+            ordinalManagement.rollback();
+        }
+        final JanusGraphManagement analysisManagement = janusGraph.openManagement();
+        if (!analysisManagement.containsGraphIndex(AnalysisModel.TYPE)) {
+            // an index with only new keys is immediately enabled and the existing analyses get their values from the backfill
+            final PropertyKey latestTimeQueuedPropertyKey = analysisManagement.makePropertyKey(AnalysisModel.LATEST_TIME_QUEUED).dataType(Long.class).cardinality(Cardinality.SINGLE).make();
+            final PropertyKey latestStatusPropertyKey = analysisManagement.makePropertyKey(AnalysisModel.LATEST_STATUS).dataType(String.class).cardinality(Cardinality.SINGLE).make();
+            analysisManagement.buildIndex(AnalysisModel.TYPE, Vertex.class)
+                    .addKey(latestTimeQueuedPropertyKey)
+                    .addKey(latestStatusPropertyKey, Mapping.STRING.asParameter())
+                    .buildMixedIndex("search");
+            analysisManagement.commit();
+        } else {
+            analysisManagement.rollback();
+        }
         // TODO how to count with `query.force-index = true` property
 //        if (LOG.isDebugEnabled()) LOG.debugf("Central Graph vertex count at startup = %d", janusGraph.traversal().V().count().next());
 /*
@@ -161,6 +352,100 @@ public class GraphService {
         return janusGraph;
     }
 
+    /**
+     * The analyses created before the latest time queued and status were stored in the analysis itself
+     * get them from their executions
+     */
+    private void backfillAnalysisModels() {
+        final List<Vertex> analyses = getCentralGraphTraversalByType(AnalysisModel.class).hasNot(AnalysisModel.LATEST_TIME_QUEUED).toList();
+        for (Vertex analysis : analyses) {
+            final AnalysisModel analysisModel = framedGraph.frameElement(analysis, AnalysisModel.class);
+            analysisModel.setLatestTimeQueued(analysisModel.getWindupExecutions()
+                    .stream()
+                    .map(WindupExecutionModel::getTimeQueued)
+                    .max(Long::compare)
+                    .orElse(analysisModel.getCreated()));
+            if (analysisModel.getStatus() != null) analysisModel.setLatestStatus(analysisModel.getStatus().toString());
+        }
+        getCentralGraphTraversalSource().tx().commit();
+        LOG.infof("Backfilled the latest time queued and status of %d analyses", analyses.size());
+    }
+
+    /**
+     * The analyses merged before the generations were available get one so that every subgraph is read,
+     * and searched, through the same indexed key.
+     * The generation is first set on the vertices, in batches of {@code io.tackle.windup.rest.graph.merge.commit-size}
+     * vertices each one committed on its own, and then published: the sweeper skips the analyses without
+     * generation so no vertex is reclaimed meanwhile and, being always the same generation, an interrupted
+     * backfill is resumed at the next startup.
+     */
+    void backfillGenerations() {
+        final List<Object> analysisIds = getCentralGraphTraversalByType(AnalysisModel.class)
+                .hasNot(AnalysisModel.GENERATION)
+                .values(AnalysisModel.ANALYSIS_ID)
+                .toList();
+        long analysesBackfilled = 0;
+        for (Object analysisId : analysisIds) {
+            final String generation = String.format("%s-%d", analysisId, 0);
+            final List<Object> vertexIds = getCentralGraphTraversalSource().V()
+                    .has(PATH_PARAM_ANALYSIS_ID, analysisId.toString())
+                    .hasNot(GENERATION)
+                    .id()
+                    .toList();
+            for (List<Object> chunk : partition(vertexIds, mergeCommitSize)) {
+                getCentralGraphTraversalSource().V(chunk.toArray()).property(GENERATION, generation).iterate();
+                getCentralGraphTraversalSource().tx().commit();
+            }
+            // the analyses never merged have no subgraph to be published
+            if (getCentralGraphTraversalSource().V().has(PATH_PARAM_ANALYSIS_ID, analysisId.toString()).has(GENERATION, generation).hasNext()) {
+                findAnalysisModelByAnalysisId((Long) analysisId).setGeneration(generation);
+                analysesBackfilled++;
+            }
+            getCentralGraphTraversalSource().tx().commit();
+        }
+        LOG.infof("Backfilled the generation of %d analyses", analysesBackfilled);
+    }
+
+    /**
+     * The issues merged before the indexed keys were copied into them get them from their own vertices,
+     * in batches of {@code io.tackle.windup.rest.merge.commit-size} issues each one committed on its own.
+     * Until then, the filters and the search don't find them and they're not listed.
+     */
+    void backfillIssueKeys() {
+        try {
+            final List<Object> issueIds = getCentralGraphTraversalByType(InlineHintModel.class)
+                    .or(__.hasNot(ISSUE_EFFORT), __.has(ISSUE_RULE_ID).hasNot(ISSUE_RULE_ID_TEXT), __.hasNot(ISSUE_ORDINAL))
+                    .id()
+                    .toList();
+            getCentralGraphTraversalSource().tx().rollback();
+            for (List<Object> chunk : partition(issueIds, mergeCommitSize)) {
+                getCentralGraphTraversalSource().V(chunk.toArray()).forEachRemaining(vertex -> setIssueKeys(framedGraph, vertex, vertex));
+                getCentralGraphTraversalSource().tx().commit();
+            }
+            LOG.infof("Backfilled the indexed keys of %d issues", issueIds.size());
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to backfill the indexed keys of the issues");
+            getCentralGraphTraversalSource().tx().rollback();
+        }
+    }
+
+    /**
+     * Sets the status of the analysis also in the indexed key used for listing the analyses
+     */
+    public static void setStatus(AnalysisModel analysisModel, AnalysisModel.Status status) {
+        analysisModel.setStatus(status);
+        analysisModel.setLatestStatus(status.toString());
+    }
+
+    /**
+     * Retrieves the analyses, with the status provided (if any), relying only on the {@link AnalysisModel#TYPE} index
+     * that can also sort and paginate them by {@link AnalysisModel#LATEST_TIME_QUEUED}
+     */
+    public GraphTraversal<Vertex, Vertex> getAnalysesGraphTraversal(AnalysisModel.Status status) {
+        final GraphTraversal<Vertex, Vertex> analyses = getCentralGraphTraversalSource().V().has(AnalysisModel.LATEST_TIME_QUEUED, P.gte(0L));
+        return status != null ? analyses.has(AnalysisModel.LATEST_STATUS, status.toString()) : analyses;
+    }
+
     public JanusGraph getCentralJanusGraph() {
         return janusGraph;
     }
@@ -177,160 +462,881 @@ public class GraphService {
         LOG.infof("Start...");
         final ReflectionCache reflections = new ReflectionCache();
         final AnnotationFrameFactory frameFactory = new WindupApiAnnotationFrameFactory(Thread.currentThread().getContextClassLoader(), reflections, getMethodHandlers());
-        final Map<Object, Object> verticesBeforeAndAfter = new HashMap<>();
+        String generation = null;
         try (JanusGraph janusGraph = openJanusGraph(sourceGraph);
              FramedGraph framedGraph = new DelegatingFramedGraph<>(janusGraph, frameFactory, new PolymorphicTypeResolver(reflections))) {
-            long elementsToBeImported = janusGraph.traversal().V().count().next() + janusGraph.traversal().E().count().next();
+            final long elementsToBeImported = janusGraph.traversal().V().count().next() + janusGraph.traversal().E().count().next();
+            final AtomicLong elementsImported = new AtomicLong();
+            final Runnable onElementImported = () -> {
+                final long imported = elementsImported.incrementAndGet();
+                if (imported % 50 == 0) windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"MERGING\",\"currentTask\":\"Merging analysis graph into central graph\",\"totalWork\":%s,\"workCompleted\":%s}", analysisId, elementsToBeImported, imported));
+            };
             final GraphTraversalSource centralGraphTraversalSource = getCentralGraphTraversalSource();
-            // Delete the previous graph for the PATH_PARAM_ANALYSIS_ID provided
-            deleteSubGraph(centralGraphTraversalSource, analysisId);
-
-            final Iterator<WindupVertexFrame> vertexIterator = framedGraph.traverse(g -> g.V().has(WindupFrame.TYPE_PROP)).frame(WindupVertexFrame.class);
-            long elementsImported = -1;
-            while (vertexIterator.hasNext()) {
-                if (++elementsImported % 50 == 0) windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"MERGING\",\"currentTask\":\"Merging analysis graph into central graph\",\"totalWork\":%s,\"workCompleted\":%s}", analysisId, elementsToBeImported, elementsImported));
-                WindupVertexFrame vertex = vertexIterator.next();
-                LOG.debugf("Adding Vertex %s", vertex);
-                GraphTraversal<Vertex, Vertex> importedVertex = centralGraphTraversalSource.addV();
-                Iterator<VertexProperty<String>> types = vertex.getElement().properties(WindupFrame.TYPE_PROP);
-                types.forEachRemaining(type -> type.ifPresent(value -> importedVertex.property(WindupFrame.TYPE_PROP, value)));
-                vertex.getElement().keys()
-                        .stream()
-                        .filter(s -> !WindupFrame.TYPE_PROP.equals(s))
-                        .forEach(property -> {
-                            LOG.debugf("Vertex %d has property %s with values %s", vertex.getElement().id(), property, vertex.getProperty(/*).getElement().properties(*/property));
-                            importedVertex.property(property, vertex.getProperty(/*).getElement().properties(*/property));
-//                    importedVertex.setProperty(property, vertex.getProperty(/*).getElement().properties(*/property));
-                        });
-                importedVertex.property(PATH_PARAM_ANALYSIS_ID, analysisId);
-                verticesBeforeAndAfter.put(vertex.getElement().id(), importedVertex.next().id());
-            }
-//            centralGraphTraversalSource.V().toList().forEach(v -> LOG.infof("%s with property %s", v, v.property(PATH_PARAM_ANALYSIS_ID)));
-            Iterator<WindupEdgeFrame> edgeIterator = framedGraph.traverse(GraphTraversalSource::E).frame(WindupEdgeFrame.class);
-            while (edgeIterator.hasNext()) {
-                if (++elementsImported % 50 == 0) windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"MERGING\",\"currentTask\":\"Merging analysis graph into central graph\",\"totalWork\":%s,\"workCompleted\":%s}", analysisId, elementsToBeImported, elementsImported));
-                WindupEdgeFrame edgeFrame = edgeIterator.next();
-                LOG.debugf("Adding Edge %s", edgeFrame.toPrettyString());
-                Edge edge = edgeFrame.getElement();
-
-                Object outVertexId = edge.outVertex().id();
-                Object importedOutVertexId = verticesBeforeAndAfter.get(outVertexId);
-                if (outVertexId == null || importedOutVertexId == null)
-                    LOG.warnf("outVertexId %s -> importedOutVertexId %s", outVertexId, importedOutVertexId);
-                GraphTraversal<Vertex, Vertex> outVertexTraversal = centralGraphTraversalSource.V(importedOutVertexId);
-
-                Object inVertexId = edge.inVertex().id();
-                Object importedInVertexId = verticesBeforeAndAfter.get(inVertexId);
-                if (inVertexId == null || importedInVertexId == null)
-                    LOG.warnf("inVertexId %s -> importedInVertexId %s", inVertexId, importedInVertexId);
-                GraphTraversal<Vertex, Vertex> edgeGraphTraversal = centralGraphTraversalSource.V(importedInVertexId);
-                Vertex inVertex = null;
-                if (edgeGraphTraversal.hasNext()) {
-                    inVertex = edgeGraphTraversal.next();
-                } else {
-                    LOG.warnf("Missing IN vertex. It seems like the %s vertex has not been imported", inVertexId);
-                    continue;
-                }
-                GraphTraversal<Vertex, Edge> importedEdgeTraversal = outVertexTraversal.addE(edge.label()).to(inVertex);
-
-                Iterator<Property<String>> types = edge.properties(WindupEdgeFrame.TYPE_PROP);
-                types.forEachRemaining(type -> type.ifPresent(value -> importedEdgeTraversal.property(WindupFrame.TYPE_PROP, value)));
-                edge.keys()
-                        .stream()
-                        .filter(s -> !WindupEdgeFrame.TYPE_PROP.equals(s))
-                        .forEach(property -> {
-                            LOG.debugf("Edge %d has property %s with values %s", edge.id(), property, edgeFrame.getProperty(property));
-                            importedEdgeTraversal.property(property, edgeFrame.getProperty(property));
-                        });
-                Edge importedEdge = importedEdgeTraversal.property(PATH_PARAM_ANALYSIS_ID, analysisId).next();
-                LOG.debugf("Added Edge %s", importedEdge);
+            final WindupExecutionModel windupExecutionModel = findLatestWindupExecutionModelByWindupExecutionId(Long.parseLong(windupExecutionId));
+            final String currentGeneration = findCurrentGeneration(analysisId);
+            checkNotDeleted(analysisId, currentGeneration, windupExecutionModel);
+            if (mergeDelta && currentGeneration != null && !isTombstone(currentGeneration) && importSubGraphDelta(janusGraph, framedGraph, analysisId, currentGeneration, centralGraphTraversalSource)) {
+                generation = currentGeneration;
+            } else {
+                generation = String.format("%s-%d", analysisId, System.currentTimeMillis());
+                inFlightGenerations.add(generation);
+                importSubGraph(janusGraph, framedGraph, analysisId, generation, onElementImported);
             }
             // now that the WindupConfigurationModel and WindupJavaConfigurationModel have been added to the graph,
             // they can be set for the WindupExecutionModel
             WindupConfigurationModel windupConfigurationModel = framedGraph.frameElement(
-                    getCentralGraphTraversalByType(WindupConfigurationModel.class)
-                            .has(PATH_PARAM_ANALYSIS_ID, analysisId)
-                            .next(),
+                    getAnalysisGraphTraversalByType(WindupConfigurationModel.class, analysisId, generation).next(),
                     WindupConfigurationModel.class);
             WindupJavaConfigurationModel windupJavaConfigurationModel = framedGraph.frameElement(
-                    getCentralGraphTraversalByType(WindupJavaConfigurationModel.class)
-                            .has(PATH_PARAM_ANALYSIS_ID, analysisId)
-                            .next(),
+                    getAnalysisGraphTraversalByType(WindupJavaConfigurationModel.class, analysisId, generation).next(),
                     WindupJavaConfigurationModel.class);
-            final WindupExecutionModel windupExecutionModel = findLatestWindupExecutionModelByWindupExecutionId(Long.parseLong(windupExecutionId));
             LOG.debugf("Attaching WindupConfigurationModel %s", windupConfigurationModel);
             windupExecutionModel.setConfiguration(windupConfigurationModel);
             LOG.debugf("Attaching WindupJavaConfigurationModel %s", windupJavaConfigurationModel);
             windupExecutionModel.setJavaConfiguration(windupJavaConfigurationModel);
-            final Long totalStoryPoint = getTotalStoryPoints(analysisId);
+            final Long totalStoryPoint = getTotalStoryPoints(analysisId, generation);
             windupExecutionModel.setTotalStoryPoints(totalStoryPoint);
             LOG.debugf("Total Story Point: %d", totalStoryPoint);
-            final Map<Object, Long> numberIssuePerCategory = getNumberIssuesPerCategory(analysisId);
+            final Map<Object, Long> numberIssuePerCategory = getNumberIssuesPerCategory(analysisId, generation);
             windupExecutionModel.setNumberIssuesPerCategory(numberIssuePerCategory);
             if (LOG.isDebugEnabled()) numberIssuePerCategory.forEach((key, value) -> LOG.debugf("Category %s has %d issues", key, value));
+            windupExecutionModel.setSummary(createExecutionSummary(analysisId, generation));
             // it's "forcing" the numbers to be fine
             windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"MERGING\",\"currentTask\":\"Merging analysis graph into central graph\",\"totalWork\":%s,\"workCompleted\":%s}", analysisId, elementsToBeImported, elementsToBeImported));
-            centralGraphTraversalSource.tx().commit();
+            // publish the new generation: with the commit, the readers switch to it at once
+            // and the previous one becomes stale so that the sweeper will reclaim it
+            synchronized (publishLock) {
+                // this thread's transaction could still hold the generation read at the beginning of the merge
+                checkNotDeleted(analysisId, readCurrentGeneration(analysisId), windupExecutionModel);
+                final AnalysisModel analysisModel = findAnalysisModelByAnalysisId(Long.parseLong(analysisId));
+                analysisModel.setGeneration(generation);
+                // a delta merge keeps the generation but changes its issues
+                analysisModel.setIssuesTimeQueued(windupExecutionModel.getTimeQueued());
+                centralGraphTraversalSource.tx().commit();
+            }
         } catch (Exception e) {
             LOG.errorf("Exception occurred: %s", e.getMessage());
             e.printStackTrace();
             throw new RuntimeException(e);
+        } finally {
+            if (generation != null) inFlightGenerations.remove(generation);
         }
         LOG.infof("...end");
     }
 
+    /**
+     * Imports the analysis graph into the central graph as a new generation of the analysis subgraph.
+     * The new generation isn't visible to the readers until it's published, no matter how many chunks
+     * have been committed in the meantime.
+     */
+    private void importSubGraph(JanusGraph sourceGraph, FramedGraph sourceFramedGraph, String analysisId, String generation,
+                                Runnable onElementImported) throws IOException, InterruptedException, ExecutionException {
+        // the source vertices are partitioned in chunks, each one imported in parallel within its own transaction
+        final List<Object> sourceVertexIds = getSourceVertexIds(sourceGraph);
+        final List<List<Object>> sourceVertexIdChunks = partition(sourceVertexIds, mergeCommitSize);
+        // raised when an import fails so that the other ones stop at their next element
+        final AtomicBoolean stopped = new AtomicBoolean();
+        try (LongLongHashMap verticesBeforeAndAfter = new LongLongHashMap(sourceVertexIds.size(), sourceVertexIds.size() > mergeOffHeapThreshold)) {
+            long start = System.currentTimeMillis();
+            final long verticesImported = importInParallel(sourceVertexIdChunks.stream()
+                    .map(chunk -> (Callable<Long>) () -> importVertices(sourceGraph, sourceFramedGraph, chunk, analysisId, generation, verticesBeforeAndAfter, onElementImported, stopped))
+                    .collect(Collectors.toList()), stopped);
+            LOG.infof("Imported %d vertices for Analysis ID %s in %d ms with %d threads", verticesImported, analysisId, System.currentTimeMillis() - start, mergeThreads);
+            // once all the vertices have been imported, the edges are imported in parallel as well
+            // partitioning them based on their OUT vertex: from now on the map is only read
+            start = System.currentTimeMillis();
+            final long edgesImported = importInParallel(sourceVertexIdChunks.stream()
+                    .map(chunk -> (Callable<Long>) () -> importEdges(sourceGraph, chunk, analysisId, verticesBeforeAndAfter, onElementImported, stopped))
+                    .collect(Collectors.toList()), stopped);
+            LOG.infof("Imported %d edges for Analysis ID %s in %d ms with %d threads", edgesImported, analysisId, System.currentTimeMillis() - start, mergeThreads);
+        }
+    }
+
+    /**
+     * Writes into the central graph only the differences between the analysis graph and the current generation of the
+     * subgraph for the same analysis.
+     * Vertices are matched based on a fingerprint of their types and properties while edges are matched based on
+     * their label, their properties and the vertices they connect.
+     * Everything is written in the current central graph transaction so the changes become visible all together.
+     *
+     * @return {@code false} if there's no previous subgraph, if it's too big to match its vertices on heap or if there
+     * are too many differences to apply them within a single transaction, hence nothing has been written and a full
+     * import is needed
+     */
+    private boolean importSubGraphDelta(JanusGraph sourceGraph, FramedGraph sourceFramedGraph, String analysisId, String generation,
+                                        GraphTraversalSource centralGraphTraversalSource) throws IOException {
+        final long start = System.currentTimeMillis();
+        // the configuration models are going to stay with the previous WindupExecutionModel vertex
+        final List<Object> configurationModelIds = getConfigurationModelIds(getAnalysisGraphTraversal(centralGraphTraversalSource, analysisId, generation)
+                .has(WindupFrame.TYPE_PROP, P.within(CONFIGURATION_MODEL_TYPES)));
+        final Map<UUID, Deque<Object>> existingVertices = new HashMap<>();
+        final Iterator<Vertex> existingVertexIterator = getAnalysisGraphTraversal(centralGraphTraversalSource, analysisId, generation);
+        long existingVerticesCount = 0;
+        while (existingVertexIterator.hasNext()) {
+            final Vertex vertex = existingVertexIterator.next();
+            if (configurationModelIds.contains(vertex.id())) continue;
+            // the fingerprints are kept on heap, unlike the IDs of the full import's huge subgraphs
+            if (++existingVerticesCount > mergeOffHeapThreshold) {
+                LOG.infof("Analysis ID %s has more than %d vertices: too many for a delta merge", analysisId, mergeOffHeapThreshold);
+                return false;
+            }
+            existingVertices.computeIfAbsent(fingerprint(vertex), fingerprint -> new ArrayDeque<>()).add(vertex.id());
+        }
+        if (existingVertices.isEmpty()) return false;
+
+        final List<Object> sourceVertexIds = getSourceVertexIds(sourceGraph);
+        try (LongLongHashMap verticesBeforeAndAfter = new LongLongHashMap(sourceVertexIds.size(), sourceVertexIds.size() > mergeOffHeapThreshold)) {
+            final Set<Object> matchedVertexIds = new HashSet<>();
+            final List<Vertex> matchedIssues = new ArrayList<>();
+            final List<Vertex> verticesToAdd = new ArrayList<>();
+            final Iterator<Vertex> sourceVertexIterator = sourceGraph.vertices(sourceVertexIds.toArray());
+            while (sourceVertexIterator.hasNext()) {
+                final Vertex vertex = sourceVertexIterator.next();
+                final Deque<Object> matchingVertexIds = existingVertices.get(fingerprint(vertex));
+                if (matchingVertexIds != null && !matchingVertexIds.isEmpty()) {
+                    final Object matchingVertexId = matchingVertexIds.poll();
+                    matchedVertexIds.add(matchingVertexId);
+                    verticesBeforeAndAfter.put((Long) vertex.id(), (Long) matchingVertexId);
+                    if (isIssue(vertex)) matchedIssues.add(vertex);
+                } else {
+                    verticesToAdd.add(vertex);
+                }
+            }
+            final List<Object> verticesToRemove = existingVertices.values().stream().flatMap(Collection::stream).collect(Collectors.toList());
+            if (verticesToAdd.size() + verticesToRemove.size() > mergeCommitSize) {
+                LOG.infof("Analysis ID %s has %d vertices to add and %d to remove: too many for a delta merge", analysisId, verticesToAdd.size(), verticesToRemove.size());
+                return false;
+            }
+
+            detachConfigurationModels(centralGraphTraversalSource, configurationModelIds);
+            for (Vertex vertex : verticesToAdd) {
+                final Vertex importedVertex = copyVertex(centralGraphTraversalSource, vertex, analysisId, generation);
+                setIssueKeys(sourceFramedGraph, vertex, importedVertex);
+                verticesBeforeAndAfter.put((Long) vertex.id(), (Long) importedVertex.id());
+            }
+            // the matched issues have the same properties but their category or file could have changed
+            if (!matchedIssues.isEmpty()) {
+                final Map<Object, Vertex> matchedVertices = centralGraphTraversalSource.V(matchedIssues.stream()
+                                .map(vertex -> verticesBeforeAndAfter.get((Long) vertex.id(), NOT_IMPORTED))
+                                .toArray())
+                        .toStream()
+                        .collect(Collectors.toMap(Vertex::id, vertex -> vertex));
+                for (Vertex vertex : matchedIssues) {
+                    setIssueKeys(sourceFramedGraph, vertex, matchedVertices.get(verticesBeforeAndAfter.get((Long) vertex.id(), NOT_IMPORTED)));
+                }
+            }
+
+            // the edges between matched vertices are the only ones that could be already available while the ones
+            // connecting them with the previous configuration models will never match so they're going to be removed
+            final Set<Object> previousVertexIds = new HashSet<>(matchedVertexIds);
+            previousVertexIds.addAll(configurationModelIds);
+            final Map<String, Deque<Edge>> existingEdges = new HashMap<>();
+            if (!matchedVertexIds.isEmpty()) {
+                final Iterator<Edge> existingEdgeIterator = centralGraphTraversalSource.V(matchedVertexIds.toArray()).bothE().dedup();
+                while (existingEdgeIterator.hasNext()) {
+                    final Edge edge = existingEdgeIterator.next();
+                    final Object outVertexId = edge.outVertex().id();
+                    final Object inVertexId = edge.inVertex().id();
+                    if (previousVertexIds.contains(outVertexId) && previousVertexIds.contains(inVertexId)) {
+                        existingEdges.computeIfAbsent(edgeFingerprint(outVertexId, edge, inVertexId), fingerprint -> new ArrayDeque<>()).add(edge);
+                    }
+                }
+            }
+            long edgesAdded = 0;
+            final List<Edge> edgesToAdd = new ArrayList<>(mergeCommitSize);
+            final Iterator<Edge> sourceEdgeIterator = sourceGraph.traversal().V(sourceVertexIds.toArray()).outE();
+            while (sourceEdgeIterator.hasNext()) {
+                final Edge edge = sourceEdgeIterator.next();
+                if (isSkippedEdge(edge, verticesBeforeAndAfter)) continue;
+                final long importedOutVertexId = verticesBeforeAndAfter.get((Long) edge.outVertex().id(), NOT_IMPORTED);
+                final long importedInVertexId = verticesBeforeAndAfter.get((Long) edge.inVertex().id(), NOT_IMPORTED);
+                if (importedOutVertexId == NOT_IMPORTED || importedInVertexId == NOT_IMPORTED) {
+                    LOG.warnf("Missing vertex. It seems like the %s or %s vertex has not been imported", edge.outVertex().id(), edge.inVertex().id());
+                    continue;
+                }
+                final Deque<Edge> matchingEdges = existingEdges.get(edgeFingerprint(importedOutVertexId, edge, importedInVertexId));
+                if (matchingEdges != null && !matchingEdges.isEmpty()) {
+                    matchingEdges.poll();
+                } else {
+                    edgesToAdd.add(edge);
+                }
+                if (edgesToAdd.size() == mergeCommitSize) {
+                    edgesAdded += addEdgesBatch(centralGraphTraversalSource, edgesToAdd, analysisId, verticesBeforeAndAfter);
+                    edgesToAdd.clear();
+                }
+            }
+            if (!edgesToAdd.isEmpty()) edgesAdded += addEdgesBatch(centralGraphTraversalSource, edgesToAdd, analysisId, verticesBeforeAndAfter);
+            final List<Edge> edgesToRemove = existingEdges.values().stream().flatMap(Collection::stream).collect(Collectors.toList());
+            edgesToRemove.forEach(Edge::remove);
+            if (!verticesToRemove.isEmpty()) centralGraphTraversalSource.V(verticesToRemove.toArray()).drop().iterate();
+            LOG.infof("Delta merge for Analysis ID %s in %d ms: %d vertices added, %d removed, %d kept and %d edges added, %d removed",
+                    analysisId, System.currentTimeMillis() - start, verticesToAdd.size(), verticesToRemove.size(), matchedVertexIds.size(), edgesAdded, edgesToRemove.size());
+        }
+        return true;
+    }
+
+    /**
+     * The vertices at the ends of the batch's edges are retrieved with a single multi-ID lookup
+     */
+    private static long addEdgesBatch(GraphTraversalSource centralGraphTraversalSource, List<Edge> edges, String analysisId, LongLongHashMap verticesBeforeAndAfter) {
+        final Object[] importedVertexIds = edges.stream()
+                .flatMap(edge -> Stream.of(edge.outVertex().id(), edge.inVertex().id()))
+                .map(id -> verticesBeforeAndAfter.get((Long) id, NOT_IMPORTED))
+                .distinct()
+                .toArray();
+        final Map<Object, Vertex> importedVertices = centralGraphTraversalSource.V(importedVertexIds).toStream()
+                .collect(Collectors.toMap(Vertex::id, vertex -> vertex));
+        for (Edge edge : edges) {
+            copyEdge(importedVertices.get(verticesBeforeAndAfter.get((Long) edge.outVertex().id(), NOT_IMPORTED)),
+                    importedVertices.get(verticesBeforeAndAfter.get((Long) edge.inVertex().id(), NOT_IMPORTED)),
+                    edge, analysisId);
+        }
+        return edges.size();
+    }
+
+    private static UUID fingerprint(Element element) {
+        final List<String> properties = new ArrayList<>();
+        element.properties().forEachRemaining(property -> {
+            // the edges' type is imported with the vertices' type key
+            final String key = WindupEdgeFrame.TYPE_PROP.equals(property.key()) ? WindupFrame.TYPE_PROP : property.key();
+            if (!MERGE_PROPERTY_KEYS.contains(key)) properties.add(key + '=' + property.value());
+        });
+        Collections.sort(properties);
+        return UUID.nameUUIDFromBytes(String.join("\n", properties).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String edgeFingerprint(Object outVertexId, Edge edge, Object inVertexId) {
+        return String.format("%s-%s->%s %s", outVertexId, edge.label(), inVertexId, fingerprint(edge));
+    }
+
+    /**
+     * Computes, with a single pass over the analysis' issues, the numbers that would otherwise require
+     * to walk through all the issues at each request.
+     * The numbers come from the keys copied into the merged issues and from their tags, both properties
+     * of the issues themselves, so that neither the source graph nor the adjacent vertices are read.
+     */
+    private ExecutionSummaryModel createExecutionSummary(String analysisId, String generation) {
+        final long start = System.currentTimeMillis();
+        long numberIssues = 0;
+        long totalEffort = 0;
+        final Map<String, Long> numberIssuesPerCategory = new HashMap<>();
+        final Map<String, Long> numberIssuesPerRule = new HashMap<>();
+        final Map<String, Long> numberIssuesPerFile = new HashMap<>();
+        final Map<String, Long> numberIssuesPerTag = new HashMap<>();
+        final Map<String, Long> numberIssuesPerEffort = new HashMap<>();
+        final Iterator<Vertex> hints = getIssuesGraphTraversal(Set.of(generation), null, null, null, null, null);
+        while (hints.hasNext()) {
+            final Vertex vertex = hints.next();
+            numberIssues++;
+            final Integer effort = vertex.<Integer>property(ISSUE_EFFORT).orElse(0);
+            totalEffort += effort;
+            numberIssuesPerEffort.merge(Integer.toString(effort), 1L, Long::sum);
+            vertex.<String>property(ISSUE_CATEGORY).ifPresent(category -> numberIssuesPerCategory.merge(category, 1L, Long::sum));
+            vertex.<String>property(ISSUE_RULE_ID).ifPresent(ruleId -> numberIssuesPerRule.merge(ruleId, 1L, Long::sum));
+            vertex.<String>property(ISSUE_FILE).ifPresent(file -> numberIssuesPerFile.merge(file, 1L, Long::sum));
+            final Set<String> tags = framedGraph.frameElement(vertex, InlineHintModel.class).getTags();
+            if (tags != null) tags.forEach(tag -> numberIssuesPerTag.merge(tag, 1L, Long::sum));
+        }
+        final ExecutionSummaryModel executionSummaryModel = create(ExecutionSummaryModel.class);
+        executionSummaryModel.setNumberIssues(numberIssues);
+        executionSummaryModel.setTotalEffort(totalEffort);
+        executionSummaryModel.setNumberIssuesPerCategory(numberIssuesPerCategory);
+        executionSummaryModel.setNumberIssuesPerRule(top(numberIssuesPerRule, summaryTopSize));
+        executionSummaryModel.setNumberIssuesPerFile(top(numberIssuesPerFile, summaryTopSize));
+        executionSummaryModel.setNumberIssuesPerTag(numberIssuesPerTag);
+        executionSummaryModel.setNumberIssuesPerEffort(numberIssuesPerEffort);
+        LOG.infof("Computed the summary of %d issues for Analysis ID %s in %d ms", numberIssues, analysisId, System.currentTimeMillis() - start);
+        return executionSummaryModel;
+    }
+
+    private static boolean isIssue(Vertex vertex) {
+        final String issueType = WindupTypeResolver.getTypeValue(InlineHintModel.class);
+        final Iterator<Object> types = vertex.values(WindupFrame.TYPE_PROP);
+        while (types.hasNext()) {
+            if (issueType.equals(types.next())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Copies into the issue the values, read from the source one, of the keys indexed for filtering and searching the issues
+     */
+    private static void setIssueKeys(FramedGraph sourceFramedGraph, Vertex sourceVertex, Vertex vertex) {
+        if (!isIssue(sourceVertex)) return;
+        final InlineHintModel hint = sourceFramedGraph.frameElement(sourceVertex, InlineHintModel.class);
+        final IssueCategoryModel issueCategory = hint.getIssueCategory();
+        // with the "slim" merge profile the files are not available
+        final FileModel file = hint.getFile();
+        setIssueKey(vertex, ISSUE_CATEGORY, issueCategory != null ? issueCategory.getName() : null);
+        setIssueKey(vertex, ISSUE_RULE_ID, hint.getRuleID());
+        setIssueKey(vertex, ISSUE_RULE_ID_TEXT, hint.getRuleID());
+        setIssueKey(vertex, ISSUE_FILE, file != null ? file.getFilePath() : null);
+        setIssueKey(vertex, ISSUE_EFFORT, hint.getEffort());
+        setIssueKey(vertex, ISSUE_TITLE, hint.getTitle());
+        setIssueKey(vertex, ISSUE_MESSAGE, hint.getHint());
+        setIssueKey(vertex, ISSUE_ORDINAL, vertex.id());
+    }
+
+    /**
+     * With the delta merge, the issues already have the keys so they're written only if changed
+     */
+    private static void setIssueKey(Vertex vertex, String key, Object value) {
+        final VertexProperty<Object> property = vertex.property(key);
+        if (value == null) {
+            if (property.isPresent()) property.remove();
+        } else if (!property.isPresent() || !value.equals(property.value())) {
+            vertex.property(key, value);
+        }
+    }
+
+    /**
+     * Reads the current generations of the analysis provided or, if none, of all the analyses, each one with the time
+     * the execution whose issues it holds has been queued
+     */
+    public Map<String, Long> findCurrentGenerations(String analysisId) {
+        final GraphTraversal<Vertex, Vertex> analyses = getCentralGraphTraversalByType(AnalysisModel.class);
+        if (analysisId != null) {
+            try {
+                analyses.has(AnalysisModel.ANALYSIS_ID, Long.parseLong(analysisId));
+            } catch (NumberFormatException e) {
+                return Map.of();
+            }
+        }
+        final Map<String, Long> currentGenerations = new HashMap<>();
+        analyses.has(AnalysisModel.GENERATION)
+                .<Object>project(AnalysisModel.GENERATION, AnalysisModel.ISSUES_TIME_QUEUED)
+                .by(AnalysisModel.GENERATION)
+                // the generations published before the time queued was stored with them
+                .by(__.coalesce(__.values(AnalysisModel.ISSUES_TIME_QUEUED), __.constant(0L)))
+                .forEachRemaining(currentGeneration -> currentGenerations.put(currentGeneration.get(AnalysisModel.GENERATION).toString(),
+                        (Long) currentGeneration.get(AnalysisModel.ISSUES_TIME_QUEUED)));
+        return currentGenerations;
+    }
+
+    /**
+     * The version of the current issues changes whenever a generation is published, by a merge or a deletion,
+     * even if it's the same generation updated by a delta merge
+     */
+    public static String getIssuesVersion(Map<String, Long> currentGenerations) {
+        final List<String> versions = currentGenerations.entrySet()
+                .stream()
+                .map(currentGeneration -> currentGeneration.getKey() + '=' + currentGeneration.getValue())
+                .sorted()
+                .collect(Collectors.toList());
+        return UUID.nameUUIDFromBytes(String.join("\n", versions).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Retrieves the issues of the generations provided, sorted by their ordinal and, if provided, after the one
+     * of the latest issue already read.
+     * The issues are retrieved with a single index query on keys only the issues have, together with the filters,
+     * unless the generations are too many for a single query: then the issues of the other generations are skipped
+     * once retrieved.
+     */
+    public GraphTraversal<Vertex, Vertex> getIssuesGraphTraversal(Collection<String> generations, Long afterOrdinal,
+                                                                  String category, String ruleId, String file, Integer effort) {
+        final List<String> issueGenerations = generations.stream().filter(generation -> !isTombstone(generation)).collect(Collectors.toList());
+        if (issueGenerations.isEmpty()) return getCentralGraphTraversalSource().inject();
+        final GraphTraversal<Vertex, Vertex> issues = getCentralGraphTraversalSource().V()
+                .has(ISSUE_ORDINAL, afterOrdinal != null ? P.gt(afterOrdinal) : P.gte(0L));
+        if (issueGenerations.size() == 1) issues.has(GENERATION, issueGenerations.get(0));
+        else if (issueGenerations.size() <= MAX_QUERY_GENERATIONS) issues.has(GENERATION, P.within(issueGenerations));
+        filterIssues(issues, category, ruleId, file, effort).order().by(ISSUE_ORDINAL);
+        if (issueGenerations.size() > MAX_QUERY_GENERATIONS) issues.filter(__.values(GENERATION).is(P.within(issueGenerations)));
+        return issues;
+    }
+
+    /**
+     * Applies to the issues the filters provided, if any, on the keys indexed for the issues
+     */
+    private static GraphTraversal<Vertex, Vertex> filterIssues(GraphTraversal<Vertex, Vertex> issues, String category, String ruleId, String file, Integer effort) {
+        if (category != null) issues.has(ISSUE_CATEGORY, category);
+        if (ruleId != null) issues.has(ISSUE_RULE_ID, ruleId);
+        if (file != null) issues.has(ISSUE_FILE, file);
+        if (effort != null) issues.has(ISSUE_EFFORT, effort);
+        return issues;
+    }
+
+    /**
+     * Counts the issues per category and, for the most frequent ones, per rule and per file
+     */
+    public Map<String, Map<String, Long>> getIssuesFacets(GraphTraversal<Vertex, Vertex> issues) {
+        final Map<String, Long> numberIssuesPerCategory = new HashMap<>();
+        final Map<String, Long> numberIssuesPerRule = new HashMap<>();
+        final Map<String, Long> numberIssuesPerFile = new HashMap<>();
+        final GraphTraversal<Vertex, Map<String, Object>> facets = issues.valueMap(ISSUE_CATEGORY, ISSUE_RULE_ID, ISSUE_FILE).by(__.unfold());
+        while (facets.hasNext()) {
+            final Map<String, Object> facet = facets.next();
+            if (facet.containsKey(ISSUE_CATEGORY)) numberIssuesPerCategory.merge((String) facet.get(ISSUE_CATEGORY), 1L, Long::sum);
+            if (facet.containsKey(ISSUE_RULE_ID)) numberIssuesPerRule.merge((String) facet.get(ISSUE_RULE_ID), 1L, Long::sum);
+            if (facet.containsKey(ISSUE_FILE)) numberIssuesPerFile.merge((String) facet.get(ISSUE_FILE), 1L, Long::sum);
+        }
+        final Map<String, Map<String, Long>> issuesFacets = new HashMap<>();
+        issuesFacets.put(FACET_CATEGORY, numberIssuesPerCategory);
+        issuesFacets.put(FACET_RULE_ID, top(numberIssuesPerRule, facetsTopSize));
+        issuesFacets.put(FACET_FILE, top(numberIssuesPerFile, facetsTopSize));
+        return issuesFacets;
+    }
+
+    /**
+     * Full-text searches the text in the title, message and rule ID of the current issues of the analysis provided
+     * or, if none, of all the analyses.
+     * The index query is restricted to the current generations unless, searching all the analyses, they're too many
+     * for a single query: then the issues of the stale generations are skipped while reading the ranked results
+     * in at most {@code io.tackle.windup.rest.issues.search.max-batches} batches.
+     */
+    public List<JanusGraphIndexQuery.Result<JanusGraphVertex>> searchIssues(String text, String analysisId, int limit) {
+        final String terms = String.format("(%s)", QueryParser.escape(text));
+        final StringBuilder query = new StringBuilder(String.format("(v.\"%s\":%s OR v.\"%s\":%s OR v.\"%s\":%s)",
+                ISSUE_TITLE, terms, ISSUE_MESSAGE, terms, ISSUE_RULE_ID_TEXT, terms));
+        final Set<String> currentGenerations = new HashSet<>();
+        if (analysisId != null) {
+            final String generation = findCurrentGeneration(analysisId);
+            if (generation == null) return List.of();
+            currentGenerations.add(generation);
+        } else {
+            getCentralGraphTraversalByType(AnalysisModel.class).<String>values(AnalysisModel.GENERATION).forEachRemaining(currentGenerations::add);
+            if (currentGenerations.isEmpty()) return List.of();
+        }
+        if (currentGenerations.size() <= MAX_QUERY_GENERATIONS) {
+            query.append(String.format(" AND v.\"%s\":(%s)", GENERATION, currentGenerations.stream()
+                    .map(generation -> '"' + QueryParser.escape(generation) + '"')
+                    .collect(Collectors.joining(" OR "))));
+        }
+        final List<JanusGraphIndexQuery.Result<JanusGraphVertex>> results = new ArrayList<>(limit);
+        int offset = 0;
+        for (int batches = 0; batches < searchMaxBatches && results.size() < limit; batches++) {
+            final List<JanusGraphIndexQuery.Result<JanusGraphVertex>> batch = getCentralJanusGraph()
+                    .indexQuery(PATH_PARAM_ANALYSIS_ID, query.toString())
+                    .offset(offset)
+                    .limit(limit)
+                    .vertexStream()
+                    .collect(Collectors.toList());
+            for (JanusGraphIndexQuery.Result<JanusGraphVertex> result : batch) {
+                if (currentGenerations.contains(result.getElement().<String>property(GENERATION).orElse(null))) {
+                    results.add(result);
+                    if (results.size() == limit) break;
+                }
+            }
+            if (batch.size() < limit) break;
+            offset += limit;
+        }
+        return results;
+    }
+
+    private static Map<String, Long> top(Map<String, Long> numbers, int size) {
+        return numbers.entrySet()
+                .stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(size)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Long::sum, HashMap::new));
+    }
+
+    /**
+     * Tombstones the analysis subgraph: it immediately becomes invisible to the readers
+     * while its vertices are reclaimed in background.
+     */
     public void deleteAnalysisGraphFromCentralGraph(String analysisId) {
-        GraphTraversalSource centralGraphTraversalSource = getCentralGraphTraversalSource();
-        LOG.debugf("Before deleting vertices with Analysis ID %s, central graph has %d vertices",
-                analysisId,
-                centralGraphTraversalSource.V().has(PATH_PARAM_ANALYSIS_ID).count().next());
-        deleteSubGraph(centralGraphTraversalSource, analysisId);
-        LOG.debugf("Going to commit the deletion of vertices with Analysis ID %s to central graph", analysisId);
-        centralGraphTraversalSource.tx().commit();
-        LOG.debugf("After deletion of vertices with Analysis ID %s, central graph has %d vertices",
-                analysisId,
-                centralGraphTraversalSource.V().has(PATH_PARAM_ANALYSIS_ID).count().next());
-    }
-
-    private void deleteSubGraph(GraphTraversalSource centralGraphTraversalSource, String analysisId) {
-        // Delete the previous graph for the PATH_PARAM_ANALYSIS_ID provided
-        LOG.infof("Delete the previous vertices with Analysis ID %s", analysisId);
-        // Drop the PATH_PARAM_ANALYSIS_ID property from the WindupConfigurationModel vertex (and its connected vertices)
-        // so that we can keep these models connected in the graph with the proper WindupExecutionModel vertex
-        getCentralGraphTraversalByType(WindupConfigurationModel.class)
-                .has(PATH_PARAM_ANALYSIS_ID, analysisId)
-                .out(WindupConfigurationModel.INPUT_PATH,
-                    WindupConfigurationModel.USER_RULES_PATH,
-                    WindupConfigurationModel.USER_LABELS_PATH,
-                    WindupConfigurationModel.USER_IGNORE_PATH,
-                    WindupConfigurationModel.USER_RULES_PATH,
-                    WindupConfigurationModel.OUTPUT_PATH,
-                    WindupConfigurationModel.SOURCE_TECHNOLOGY,
-                    WindupConfigurationModel.TARGET_TECHNOLOGY)
-                .properties(PATH_PARAM_ANALYSIS_ID)
-                .drop().iterate();
-        getCentralGraphTraversalByType(WindupConfigurationModel.class)
-                .has(PATH_PARAM_ANALYSIS_ID, analysisId)
-                .properties(PATH_PARAM_ANALYSIS_ID)
-                .drop().iterate();
+        LOG.debugf("Tombstoning the vertices with Analysis ID %s", analysisId);
+        synchronized (publishLock) {
+            findAnalysisModelByAnalysisId(Long.parseLong(analysisId)).setGeneration(String.format("%s-%d", TOMBSTONE_GENERATION, System.currentTimeMillis()));
+            getCentralGraphTraversalSource().tx().commit();
+        }
+    }
 
-        // Drop the PATH_PARAM_ANALYSIS_ID property from the WindupJavaConfigurationModel vertex (and its connected vertices)
-        // so that we can keep these models connected in the graph with the proper WindupExecutionModel vertex
-        getCentralGraphTraversalByType(WindupJavaConfigurationModel.class)
-                .has(PATH_PARAM_ANALYSIS_ID, analysisId)
-                .out(WindupJavaConfigurationModel.SCAN_JAVA_PACKAGES,
-                        WindupJavaConfigurationModel.IGNORED_FILES,
-                        WindupJavaConfigurationModel.EXCLUDE_JAVA_PACKAGES,
-                        WindupJavaConfigurationModel.ADDITIONAL_CLASSPATHS)
-                .properties(PATH_PARAM_ANALYSIS_ID)
+    /**
+     * A merge must not publish its generation, bringing the analysis back, if the analysis has been deleted
+     * after the execution being merged had been queued whereas an analysis deleted before is being run again.
+     */
+    static void checkNotDeleted(String analysisId, String generation, WindupExecutionModel windupExecutionModel) {
+        if (!isTombstone(generation)) return;
+        // the analyses deleted before the time of the deletion was tracked have been deleted before any new execution
+        final long deleted = generation.length() > TOMBSTONE_GENERATION.length() ? Long.parseLong(generation.substring(TOMBSTONE_GENERATION.length() + 1)) : 0;
+        if (deleted >= windupExecutionModel.getTimeQueued()) {
+            throw new IllegalStateException(String.format("Analysis ID %s has been deleted, the merge is aborted", analysisId));
+        }
+    }
+
+    /**
+     * The analysis whose current generation is a tombstone has been deleted, whatever its status,
+     * until a new execution is merged
+     */
+    public static boolean isTombstone(String generation) {
+        return generation != null && generation.startsWith(TOMBSTONE_GENERATION);
+    }
+
+    /**
+     * Retrieves the IDs of the WindupConfigurationModel and WindupJavaConfigurationModel vertices provided
+     * and of their connected vertices
+     */
+    private static List<Object> getConfigurationModelIds(GraphTraversal<Vertex, Vertex> configurationModels) {
+        return configurationModels
+                .union(__.identity(),
+                        __.out(WindupConfigurationModel.INPUT_PATH,
+                                WindupConfigurationModel.USER_RULES_PATH,
+                                WindupConfigurationModel.USER_LABELS_PATH,
+                                WindupConfigurationModel.USER_IGNORE_PATH,
+                                WindupConfigurationModel.OUTPUT_PATH,
+                                WindupConfigurationModel.SOURCE_TECHNOLOGY,
+                                WindupConfigurationModel.TARGET_TECHNOLOGY,
+                                WindupJavaConfigurationModel.SCAN_JAVA_PACKAGES,
+                                WindupJavaConfigurationModel.IGNORED_FILES,
+                                WindupJavaConfigurationModel.EXCLUDE_JAVA_PACKAGES,
+                                WindupJavaConfigurationModel.ADDITIONAL_CLASSPATHS))
+                .dedup()
+                .id()
+                .toList();
+    }
+
+    /**
+     * Drop the PATH_PARAM_ANALYSIS_ID and GENERATION properties from the configuration models' vertices
+     * so that we can keep these models connected in the graph with the proper WindupExecutionModel vertex
+     */
+    private static void detachConfigurationModels(GraphTraversalSource centralGraphTraversalSource, List<Object> configurationModelIds) {
+        if (!configurationModelIds.isEmpty()) centralGraphTraversalSource.V(configurationModelIds.toArray())
+                .properties(PATH_PARAM_ANALYSIS_ID, GENERATION)
                 .drop().iterate();
-        getCentralGraphTraversalByType(WindupJavaConfigurationModel.class)
+    }
+
+    private long importInParallel(List<Callable<Long>> importTasks, AtomicBoolean stopped) throws InterruptedException, ExecutionException {
+        final CompletionService<Long> completionService = new ExecutorCompletionService<>(mergeImportExecutor);
+        final List<Future<Long>> futures = importTasks.stream().map(completionService::submit).collect(Collectors.toList());
+        long elementsImported = 0;
+        try {
+            for (int i = 0; i < futures.size(); i++) elementsImported += completionService.take().get();
+        } catch (InterruptedException | ExecutionException e) {
+            // no reason to let the other imports go on if one has failed but interrupting them could happen
+            // in the middle of the storage I/O and break the storage of the whole central graph so the imports
+            // not started yet are cancelled while the running ones stop on their own at the next element
+            stopped.set(true);
+            futures.forEach(future -> future.cancel(false));
+            throw e;
+        }
+        return elementsImported;
+    }
+
+    private long importVertices(JanusGraph sourceGraph, FramedGraph sourceFramedGraph, List<Object> sourceVertexIds, String analysisId, String generation,
+                                LongLongHashMap verticesBeforeAndAfter, Runnable onElementImported, AtomicBoolean stopped) throws IOException {
+        final JanusGraphTransaction importTransaction = newImportTransactionBuilder().start();
+        // the IDs are collected locally and then added to the shared map at once to not contend on it for each vertex
+        final long[] sourceIds = new long[sourceVertexIds.size()];
+        final long[] importedIds = new long[sourceVertexIds.size()];
+        int vertexImported = 0;
+        try {
+            final GraphTraversalSource importTraversalSource = importTransaction.traversal();
+            final Iterator<Vertex> vertexIterator = sourceGraph.vertices(sourceVertexIds.toArray());
+            while (vertexIterator.hasNext()) {
+                checkNotStopped(stopped);
+                final Vertex vertex = vertexIterator.next();
+                final Vertex importedVertex = copyVertex(importTraversalSource, vertex, analysisId, generation);
+                // the issues get their indexed keys within the same chunk
+                setIssueKeys(sourceFramedGraph, vertex, importedVertex);
+                sourceIds[vertexImported] = (Long) vertex.id();
+                importedIds[vertexImported++] = (Long) importedVertex.id();
+                onElementImported.run();
+            }
+            importTransaction.commit();
+            synchronized (verticesBeforeAndAfter) {
+                for (int i = 0; i < vertexImported; i++) verticesBeforeAndAfter.put(sourceIds[i], importedIds[i]);
+            }
+            return vertexImported;
+        } finally {
+            if (importTransaction.isOpen()) importTransaction.rollback();
+            // every import thread has its own thread-bound transaction on the source graph
+            sourceGraph.tx().rollback();
+        }
+    }
+
+    private long importEdges(JanusGraph sourceGraph, List<Object> sourceOutVertexIds, String analysisId,
+                             LongLongHashMap verticesBeforeAndAfter, Runnable onElementImported, AtomicBoolean stopped) {
+        final Iterator<Edge> edgeIterator = sourceGraph.traversal().V(sourceOutVertexIds.toArray()).outE();
+        final List<Edge> edges = new ArrayList<>(mergeCommitSize);
+        long edgesImported = 0;
+        try {
+            while (edgeIterator.hasNext()) {
+                checkNotStopped(stopped);
+                final Edge edge = edgeIterator.next();
+                if (!isSkippedEdge(edge, verticesBeforeAndAfter)) edges.add(edge);
+                if (edges.size() == mergeCommitSize || (!edgeIterator.hasNext() && !edges.isEmpty())) {
+                    edgesImported += importEdgesBatch(edges, analysisId, verticesBeforeAndAfter, onElementImported);
+                    edges.clear();
+                }
+            }
+            return edgesImported;
+        } finally {
+            // every import thread has its own thread-bound transaction on the source graph
+            sourceGraph.tx().rollback();
+        }
+    }
+
+    private long importEdgesBatch(List<Edge> edges, String analysisId, LongLongHashMap verticesBeforeAndAfter, Runnable onElementImported) {
+        // the vertices have just been imported so there's no need for the transaction to check they exist
+        // and all the ones at the ends of the batch's edges can be retrieved with a single multi-ID lookup
+        final JanusGraphTransaction importTransaction = newImportTransactionBuilder().checkExternalVertexExistence(false).start();
+        try {
+            final long[] importedVertexIds = edges.stream()
+                    .flatMap(edge -> Stream.of(edge.outVertex().id(), edge.inVertex().id()))
+                    .mapToLong(id -> verticesBeforeAndAfter.get((Long) id, NOT_IMPORTED))
+                    .filter(id -> id != NOT_IMPORTED)
+                    .distinct()
+                    .toArray();
+            final Map<Long, JanusGraphVertex> importedVertices = importTransaction.getVertices(importedVertexIds);
+            LOG.debugf("Retrieved %d vertices to import %d edges", importedVertices.size(), edges.size());
+            long edgesImported = 0;
+            for (Edge edge : edges) {
+                final JanusGraphVertex outVertex = importedVertices.get(verticesBeforeAndAfter.get((Long) edge.outVertex().id(), NOT_IMPORTED));
+                if (outVertex == null) {
+                    LOG.warnf("Missing OUT vertex. It seems like the %s vertex has not been imported", edge.outVertex().id());
+                    continue;
+                }
+                final JanusGraphVertex inVertex = importedVertices.get(verticesBeforeAndAfter.get((Long) edge.inVertex().id(), NOT_IMPORTED));
+                if (inVertex == null) {
+                    LOG.warnf("Missing IN vertex. It seems like the %s vertex has not been imported", edge.inVertex().id());
+                    continue;
+                }
+                copyEdge(outVertex, inVertex, edge, analysisId);
+                edgesImported++;
+                onElementImported.run();
+            }
+            importTransaction.commit();
+            return edgesImported;
+        } finally {
+            if (importTransaction.isOpen()) importTransaction.rollback();
+        }
+    }
+
+    /**
+     * The import's transaction, if any, is rolled back by the exception
+     */
+    private static void checkNotStopped(AtomicBoolean stopped) {
+        if (stopped.get()) throw new CancellationException("Import stopped since another import failed");
+    }
+
+    private static Vertex copyVertex(GraphTraversalSource targetGraphTraversalSource, Vertex vertex, String analysisId, String generation) {
+        LOG.debugf("Adding Vertex %s", vertex);
+        final GraphTraversal<Vertex, Vertex> importedVertex = targetGraphTraversalSource.addV();
+        final Iterator<VertexProperty<String>> types = vertex.properties(WindupFrame.TYPE_PROP);
+        types.forEachRemaining(type -> type.ifPresent(value -> importedVertex.property(WindupFrame.TYPE_PROP, value)));
+        vertex.keys()
+                .stream()
+                .filter(s -> !WindupFrame.TYPE_PROP.equals(s))
+                .forEach(property -> {
+                    LOG.debugf("Vertex %d has property %s with values %s", vertex.id(), property, vertex.value(property));
+                    importedVertex.property(property, vertex.value(property));
+                });
+        return importedVertex
+                .property(PATH_PARAM_ANALYSIS_ID, analysisId)
+                .property(GENERATION, generation)
+                .next();
+    }
+
+    private static Edge copyEdge(Vertex outVertex, Vertex inVertex, Edge edge, String analysisId) {
+        LOG.debugf("Adding Edge %s", edge);
+        final Edge importedEdge = outVertex.addEdge(edge.label(), inVertex);
+        Iterator<Property<String>> types = edge.properties(WindupEdgeFrame.TYPE_PROP);
+        types.forEachRemaining(type -> type.ifPresent(value -> importedEdge.property(WindupFrame.TYPE_PROP, value)));
+        edge.keys()
+                .stream()
+                .filter(s -> !WindupEdgeFrame.TYPE_PROP.equals(s))
+                .forEach(property -> {
+                    LOG.debugf("Edge %s has property %s with values %s", edge.id(), property, edge.value(property));
+                    importedEdge.property(property, edge.value(property));
+                });
+        importedEdge.property(PATH_PARAM_ANALYSIS_ID, analysisId);
+        LOG.debugf("Added Edge %s", importedEdge);
+        return importedEdge;
+    }
+
+    /**
+     * Retrieves the IDs of the analysis graph's vertices to be merged into the central graph.
+     * With the "slim" merge profile, only the vertices with one of the {@code mergeSlimTypes} types are merged,
+     * together with the vertices the configuration models are connected to.
+     */
+    private List<Object> getSourceVertexIds(JanusGraph sourceGraph) {
+        if (!MERGE_PROFILE_SLIM.equals(mergeProfile)) return sourceGraph.traversal().V().has(WindupFrame.TYPE_PROP).id().toList();
+        final List<Object> sourceVertexIds = sourceGraph.traversal().V()
+                .has(WindupFrame.TYPE_PROP, P.within(mergeSlimTypes))
+                .union(__.identity(),
+                        __.has(WindupFrame.TYPE_PROP, WindupTypeResolver.getTypeValue(WindupConfigurationModel.class))
+                                .out(WindupConfigurationModel.INPUT_PATH,
+                                        WindupConfigurationModel.USER_RULES_PATH,
+                                        WindupConfigurationModel.USER_LABELS_PATH,
+                                        WindupConfigurationModel.USER_IGNORE_PATH,
+                                        WindupConfigurationModel.OUTPUT_PATH,
+                                        WindupConfigurationModel.SOURCE_TECHNOLOGY,
+                                        WindupConfigurationModel.TARGET_TECHNOLOGY),
+                        __.has(WindupFrame.TYPE_PROP, WindupTypeResolver.getTypeValue(WindupJavaConfigurationModel.class))
+                                .out(WindupJavaConfigurationModel.SCAN_JAVA_PACKAGES,
+                                        WindupJavaConfigurationModel.IGNORED_FILES,
+                                        WindupJavaConfigurationModel.EXCLUDE_JAVA_PACKAGES,
+                                        WindupJavaConfigurationModel.ADDITIONAL_CLASSPATHS))
+                .has(WindupFrame.TYPE_PROP)
+                .dedup()
+                .id()
+                .toList();
+        LOG.infof("Slim merge profile selected %d vertices with types %s", sourceVertexIds.size(), mergeSlimTypes);
+        return sourceVertexIds;
+    }
+
+    /**
+     * With the "slim" merge profile, the edges pointing to a vertex that has not been selected for the merge
+     * are expected and skipped.
+     */
+    private boolean isSkippedEdge(Edge edge, LongLongHashMap verticesBeforeAndAfter) {
+        return MERGE_PROFILE_SLIM.equals(mergeProfile) && !verticesBeforeAndAfter.containsKey((Long) edge.inVertex().id());
+    }
+
+    private static <T> List<List<T>> partition(List<T> list, int size) {
+        final List<List<T>> partitions = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += size) {
+            partitions.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return partitions;
+    }
+
+    /**
+     * Drops the vertices of the analysis subgraphs' generations that are neither the current one nor being imported,
+     * including the whole subgraph, and the issues snapshots, of the deleted analyses.
+     * Vertices are dropped in batches of {@code generationSweepBatchSize} vertices, each one in its own transaction,
+     * waiting {@code generationSweepBatchDelay} milliseconds between them so that the sweep doesn't steal the
+     * central graph from the requests.
+     */
+    void sweepStaleGenerations() {
+        try {
+            final List<Map<String, Object>> currentGenerations;
+            final JanusGraphTransaction readTransaction = getCentralJanusGraph().newTransaction();
+            try {
+                currentGenerations = readTransaction.traversal().V()
+                        .has(WindupFrame.TYPE_PROP, WindupTypeResolver.getTypeValue(AnalysisModel.class))
+                        .has(AnalysisModel.GENERATION)
+                        .<Object>project(AnalysisModel.ANALYSIS_ID, AnalysisModel.GENERATION)
+                        .by(AnalysisModel.ANALYSIS_ID)
+                        .by(AnalysisModel.GENERATION)
+                        .toList();
+            } finally {
+                readTransaction.rollback();
+            }
+            for (Map<String, Object> currentGeneration : currentGenerations) {
+                final String analysisId = currentGeneration.get(AnalysisModel.ANALYSIS_ID).toString();
+                final String generation = currentGeneration.get(AnalysisModel.GENERATION).toString();
+                // the issues snapshots of a deleted analysis go away together with its subgraph
+                if (dropStaleGenerations(analysisId, generation) > 0 && isTombstone(generation)) issuesSnapshotService.deleteStaleSnapshots(analysisId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // the sweep will be retried at the next run
+            LOG.errorf(e, "Sweeping the stale generations failed");
+        }
+    }
+
+    /**
+     * A merge could start, and commit its first chunks, or publish its generation while the stale vertices are read
+     * so, once read, each batch is checked again against the generations in flight and the current one.
+     * A merge's generation is in flight before its first chunk is committed and leaves them only once it has been
+     * published, hence a generation whose vertices have been read is always in one of the two sets read afterwards.
+     */
+    private long dropStaleGenerations(String analysisId, String currentGeneration) throws InterruptedException {
+        long dropped = 0;
+        int read;
+        int skipped;
+        do {
+            final JanusGraphTransaction transaction = getCentralJanusGraph().newTransaction();
+            try {
+                final GraphTraversalSource graphTraversalSource = transaction.traversal();
+                final Set<String> generationsInFlight = new HashSet<>(inFlightGenerations);
+                final List<Vertex> configurationModels = getStaleGenerationsGraphTraversal(graphTraversalSource, analysisId, currentGeneration, generationsInFlight)
+                        .has(WindupFrame.TYPE_PROP, P.within(CONFIGURATION_MODEL_TYPES))
+                        .toList();
+                final List<Vertex> vertices = getStaleGenerationsGraphTraversal(graphTraversalSource, analysisId, currentGeneration, generationsInFlight)
+                        .limit(generationSweepBatchSize)
+                        .toList();
+                final Set<String> generationsToKeep = findGenerationsToKeep(analysisId);
+                final Object[] staleConfigurationModelIds = configurationModels.stream()
+                        .filter(vertex -> isStale(vertex, generationsToKeep))
+                        .map(Vertex::id)
+                        .toArray();
+                final Set<Object> detachedVertexIds = new HashSet<>();
+                if (staleConfigurationModelIds.length > 0) {
+                    final List<Object> configurationModelIds = getConfigurationModelIds(graphTraversalSource.V(staleConfigurationModelIds));
+                    detachConfigurationModels(graphTraversalSource, configurationModelIds);
+                    detachedVertexIds.addAll(configurationModelIds);
+                }
+                final List<Vertex> staleVertices = vertices.stream()
+                        .filter(vertex -> isStale(vertex, generationsToKeep))
+                        .collect(Collectors.toList());
+                staleVertices.stream()
+                        .filter(vertex -> !detachedVertexIds.contains(vertex.id()))
+                        .forEach(Vertex::remove);
+                transaction.commit();
+                read = vertices.size();
+                skipped = read - staleVertices.size();
+                dropped += staleVertices.size();
+            } finally {
+                if (transaction.isOpen()) transaction.rollback();
+            }
+            // the vertices skipped would be read again so the analysis will be swept again at the next run
+            if (skipped > 0) LOG.debugf("Skipped %d vertices of Analysis ID %s whose generation is no longer stale", skipped, analysisId);
+            else if (read == generationSweepBatchSize) Thread.sleep(generationSweepBatchDelay);
+        } while (skipped == 0 && read == generationSweepBatchSize);
+        if (dropped > 0) LOG.infof("Dropped %d vertices of stale generations for Analysis ID %s", dropped, analysisId);
+        return dropped;
+    }
+
+    /**
+     * The generations in flight are read before the current one so that a generation published in the meantime
+     * is in one of the two
+     */
+    private Set<String> findGenerationsToKeep(String analysisId) {
+        final Set<String> generationsToKeep = new HashSet<>(inFlightGenerations);
+        final String currentGeneration = readCurrentGeneration(analysisId);
+        if (currentGeneration != null) generationsToKeep.add(currentGeneration);
+        return generationsToKeep;
+    }
+
+    /**
+     * Reads the current generation of the analysis with a new transaction, regardless of what the current thread's
+     * transaction has already read
+     */
+    private String readCurrentGeneration(String analysisId) {
+        final JanusGraphTransaction readTransaction = getCentralJanusGraph().newTransaction();
+        try {
+            final GraphTraversal<Vertex, String> generation = readTransaction.traversal().V()
+                    .has(WindupFrame.TYPE_PROP, WindupTypeResolver.getTypeValue(AnalysisModel.class))
+                    .has(AnalysisModel.ANALYSIS_ID, Long.parseLong(analysisId))
+                    .values(AnalysisModel.GENERATION);
+            return generation.hasNext() ? generation.next() : null;
+        } finally {
+            readTransaction.rollback();
+        }
+    }
+
+    /**
+     * The vertices imported before generations were available have none so they're stale as well
+     * once the analysis has a generation
+     */
+    private static boolean isStale(Vertex vertex, Set<String> generationsToKeep) {
+        final VertexProperty<String> generation = vertex.property(GENERATION);
+        return !generation.isPresent() || !generationsToKeep.contains(generation.value());
+    }
+
+    private static GraphTraversal<Vertex, Vertex> getStaleGenerationsGraphTraversal(GraphTraversalSource graphTraversalSource, String analysisId,
+                                                                                    String currentGeneration, Set<String> generationsInFlight) {
+        final GraphTraversal<Vertex, Vertex> staleVertices = graphTraversalSource.V()
                 .has(PATH_PARAM_ANALYSIS_ID, analysisId)
-                .properties(PATH_PARAM_ANALYSIS_ID)
-                .drop().iterate();
+                .or(__.hasNot(GENERATION), __.has(GENERATION, P.neq(currentGeneration)));
+        if (!generationsInFlight.isEmpty()) staleVertices.not(__.has(GENERATION, P.within(generationsInFlight)));
+        return staleVertices;
+    }
 
-        final GraphTraversal<Vertex, Vertex> previousVertexGraph = centralGraphTraversalSource.V();
-        previousVertexGraph.has(PATH_PARAM_ANALYSIS_ID, analysisId).drop().iterate();
+    /**
+     * The transactions used to import the elements in the central graph can skip the consistency checks
+     * (i.e. JanusGraph batch-loading) since the imported elements are always new ones.
+     */
+    private TransactionBuilder newImportTransactionBuilder() {
+        final TransactionBuilder transactionBuilder = getCentralJanusGraph().buildTransaction();
+        if (mergeBatchLoading) transactionBuilder.enableBatchLoading();
+        return transactionBuilder;
     }
 
     public <MODEL extends WindupVertexFrame> MODEL create(Class<MODEL> model) {
@@ -361,6 +1367,14 @@ public class GraphService {
         }
     }
 
+    public List<? extends AnalysisModel> findAnalysisModelsByAnalysisIds(Collection<Long> analysisIds) {
+        return framedGraph.traverse(
+                graphTraversalSource -> graphTraversalSource.V()
+                        .has(WindupFrame.TYPE_PROP, WindupTypeResolver.getTypeValue(AnalysisModel.class))
+                        .has(AnalysisModel.ANALYSIS_ID, P.within(analysisIds)))
+                .toList(AnalysisModel.class);
+    }
+
     public WindupExecutionModel findLatestWindupExecutionModelByWindupExecutionId(long windupExecutionId) {
         return framedGraph.frameElement(
                 getCentralGraphTraversalByType(WindupExecutionModel.class)
@@ -401,8 +1415,11 @@ public class GraphService {
     }
 
     public Long getTotalStoryPoints(String analysisId) {
-        return getCentralGraphTraversalByType(EffortReportModel.class)
-                .has(PATH_PARAM_ANALYSIS_ID, analysisId)
+        return getTotalStoryPoints(analysisId, findCurrentGeneration(analysisId));
+    }
+
+    private Long getTotalStoryPoints(String analysisId, String generation) {
+        return getAnalysisGraphTraversalByType(EffortReportModel.class, analysisId, generation)
                 .map(vertexTraverser -> vertexTraverser.get().property(EffortReportModel.EFFORT).value())
                 .sum()
                 .next()
@@ -410,8 +1427,11 @@ public class GraphService {
     }
 
     public Map<Object, Long> getNumberIssuesPerCategory(String analysisId) {
-        return getCentralGraphTraversalByType(EffortReportModel.class)
-                .has(PATH_PARAM_ANALYSIS_ID, analysisId)
+        return getNumberIssuesPerCategory(analysisId, findCurrentGeneration(analysisId));
+    }
+
+    private Map<Object, Long> getNumberIssuesPerCategory(String analysisId, String generation) {
+        return getAnalysisGraphTraversalByType(EffortReportModel.class, analysisId, generation)
                 .out(EffortReportModel.ISSUE_CATEGORY)
                 .values(IssueCategoryModel.NAME)
                 .groupCount()
@@ -422,6 +1442,38 @@ public class GraphService {
         return getCentralGraphTraversalSource().V().has(WindupFrame.TYPE_PROP, WindupTypeResolver.getTypeValue(model));
     }
 
+    /**
+     * Retrieves the vertices, with the provided type, of the current generation of the analysis subgraph
+     */
+    public <MODEL extends WindupVertexFrame> GraphTraversal<Vertex, Vertex> getAnalysisGraphTraversalByType(Class<MODEL> model, String analysisId) {
+        return getAnalysisGraphTraversalByType(model, analysisId, findCurrentGeneration(analysisId));
+    }
+
+    private <MODEL extends WindupVertexFrame> GraphTraversal<Vertex, Vertex> getAnalysisGraphTraversalByType(Class<MODEL> model, String analysisId, String generation) {
+        return getAnalysisGraphTraversal(getCentralGraphTraversalSource(), analysisId, generation)
+                .has(WindupFrame.TYPE_PROP, WindupTypeResolver.getTypeValue(model));
+    }
+
+    /**
+     * An analysis without generation has never been merged, since the ones merged before the generations were
+     * available get one at startup, so it has no subgraph.
+     */
+    private static GraphTraversal<Vertex, Vertex> getAnalysisGraphTraversal(GraphTraversalSource graphTraversalSource, String analysisId, String generation) {
+        if (generation == null) return graphTraversalSource.inject();
+        return graphTraversalSource.V().has(PATH_PARAM_ANALYSIS_ID, analysisId).has(GENERATION, generation);
+    }
+
+    public String findCurrentGeneration(String analysisId) {
+        try {
+            final GraphTraversal<Vertex, Object> generation = getCentralGraphTraversalByType(AnalysisModel.class)
+                    .has(AnalysisModel.ANALYSIS_ID, Long.parseLong(analysisId))
+                    .values(AnalysisModel.GENERATION);
+            return generation.hasNext() ? (String) generation.next() : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     protected Set<MethodHandler> getMethodHandlers() {
         final Set<MethodHandler> handlers = new HashSet<>();
         handlers.add(new MapInPropertiesHandler());
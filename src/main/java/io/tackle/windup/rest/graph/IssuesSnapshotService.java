@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.tackle.windup.rest.graph.model.AnalysisModel;
+import io.tackle.windup.rest.graph.model.WindupExecutionModel;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes, at the end of each merge, the gzipped issues of the analysis into its output path
+ * both as a JSON array and as newline delimited JSON so that they can be served as files
+ * until the next merge of the analysis.
+ */
+@ApplicationScoped
+public class IssuesSnapshotService {
+    private static final Logger LOG = Logger.getLogger(IssuesSnapshotService.class);
+
+    private static final String SNAPSHOT_PREFIX = "issues-";
+    public static final String JSON_EXTENSION = ".json.gz";
+    public static final String NDJSON_EXTENSION = ".ndjson.gz";
+
+    @ConfigProperty(defaultValue = "true", name = "io.tackle.windup.rest.issues.snapshot.enabled")
+    boolean enabled;
+
+    @Inject
+    GraphService graphService;
+
+    @Inject
+    GraphMarshaller graphMarshaller;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    /**
+     * The snapshot of the issues of an analysis as available in the file system
+     */
+    public static class Snapshot {
+        public final Path path;
+        public final String etag;
+
+        Snapshot(Path path, String etag) {
+            this.path = path;
+            this.etag = etag;
+        }
+    }
+
+    /**
+     * To be invoked on the merge thread once the new generation of the analysis subgraph has been committed
+     */
+    public void writeSnapshot(String analysisId, WindupExecutionModel windupExecutionModel) {
+        if (!enabled) return;
+        final String generation = graphService.findCurrentGeneration(analysisId);
+        if (generation == null) return;
+        final String name = getSnapshotName(generation, windupExecutionModel);
+        final Path folder = Path.of(windupExecutionModel.getOutputPath());
+        final Path json = folder.resolve(name + JSON_EXTENSION);
+        final Path ndjson = folder.resolve(name + NDJSON_EXTENSION);
+        Path jsonTemp = null;
+        Path ndjsonTemp = null;
+        try {
+            jsonTemp = Files.createTempFile(folder, name, JSON_EXTENSION);
+            ndjsonTemp = Files.createTempFile(folder, name, NDJSON_EXTENSION);
+            long issues = 0;
+            try (JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(new GZIPOutputStream(Files.newOutputStream(jsonTemp)));
+                 JsonGenerator ndjsonGenerator = objectMapper.getFactory().createGenerator(new GZIPOutputStream(Files.newOutputStream(ndjsonTemp)))) {
+                ndjsonGenerator.setRootValueSeparator(null);
+                final GraphMarshallingContext ctx = graphMarshaller.createGraphMarshallingContext(1);
+                final GraphTraversal<Vertex, Vertex> hints = graphService.getIssuesGraphTraversal(Set.of(generation), null, null, null, null, null);
+                jsonGenerator.writeStartArray();
+                while (hints.hasNext()) {
+                    final Map<String, Object> issue = graphMarshaller.convertToMap(ctx, hints.next());
+                    jsonGenerator.writeObject(issue);
+                    ndjsonGenerator.writeObject(issue);
+                    ndjsonGenerator.writeRaw('\n');
+                    issues++;
+                }
+                jsonGenerator.writeEndArray();
+            }
+            Files.move(jsonTemp, json, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(ndjsonTemp, ndjson, StandardCopyOption.ATOMIC_MOVE);
+            LOG.infof("Written the snapshot of %d issues for Analysis ID %s to %s", issues, analysisId, json);
+            deleteStaleSnapshots(analysisId);
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf(e, "Failed to write the issues snapshot for Analysis ID %s, the issues will be retrieved from the graph", analysisId);
+            deleteQuietly(jsonTemp);
+            deleteQuietly(ndjsonTemp);
+        } finally {
+            graphService.getCentralJanusGraph().tx().rollback();
+        }
+    }
+
+    /**
+     * @return the snapshot with the issues of the current generation of the analysis
+     * or null if there's none (e.g. the latest execution hasn't been merged yet)
+     */
+    public Snapshot findSnapshot(String analysisId, boolean ndjson) {
+        if (!enabled) return null;
+        try {
+            graphService.getCentralJanusGraph().tx().rollback();
+            final String generation = graphService.findCurrentGeneration(analysisId);
+            if (generation == null) return null;
+            final WindupExecutionModel windupExecutionModel = graphService.findLatestWindupExecutionModelByAnalysisId(Long.parseLong(analysisId));
+            final String name = getSnapshotName(generation, windupExecutionModel);
+            final Path path = Path.of(windupExecutionModel.getOutputPath(), name + (ndjson ? NDJSON_EXTENSION : JSON_EXTENSION));
+            return Files.isRegularFile(path) ? new Snapshot(path, String.format("\"%s\"", name)) : null;
+        } catch (RuntimeException e) {
+            // e.g. the analysis doesn't exist or has no executions
+            LOG.debugf(e, "No issues snapshot for Analysis ID %s", analysisId);
+            return null;
+        } finally {
+            graphService.getCentralJanusGraph().tx().rollback();
+        }
+    }
+
+    /**
+     * The delta merge keeps the generation so the execution is part of the name to have it changing at every merge
+     * and, since all the executions of an analysis share the same ID, it's identified by the time it has been queued
+     */
+    private static String getSnapshotName(String generation, WindupExecutionModel windupExecutionModel) {
+        return getSnapshotName(generation, windupExecutionModel.getTimeQueued());
+    }
+
+    private static String getSnapshotName(String generation, long timeQueued) {
+        return String.format("%s%s-%d", SNAPSHOT_PREFIX, generation, timeQueued);
+    }
+
+    /**
+     * Deletes the snapshots, in the output folders of all the executions of the analysis, but the ones written
+     * for the execution whose issues are in the current generation so that, once the analysis has been deleted,
+     * all of them are deleted.
+     * A snapshot deleted while it's being written by a concurrent merge only means that the issues of the analysis
+     * will be retrieved from the graph.
+     */
+    public void deleteStaleSnapshots(String analysisId) {
+        try {
+            graphService.getCentralJanusGraph().tx().rollback();
+            final AnalysisModel analysisModel = graphService.findAnalysisModelByAnalysisId(Long.parseLong(analysisId));
+            final String generation = analysisModel.getGeneration();
+            final Predicate<String> isCurrent;
+            if (generation == null || GraphService.isTombstone(generation)) isCurrent = fileName -> false;
+            // the generations published before the time queued was stored with them keep all their snapshots
+            else if (analysisModel.getIssuesTimeQueued() == null) isCurrent = fileName -> fileName.startsWith(String.format("%s%s-", SNAPSHOT_PREFIX, generation));
+            else {
+                final String name = getSnapshotName(generation, analysisModel.getIssuesTimeQueued());
+                isCurrent = fileName -> fileName.equals(name + JSON_EXTENSION) || fileName.equals(name + NDJSON_EXTENSION);
+            }
+            final Set<Path> folders = new HashSet<>();
+            analysisModel.getWindupExecutions().forEach(windupExecutionModel -> {
+                if (windupExecutionModel.getOutputPath() != null) folders.add(Path.of(windupExecutionModel.getOutputPath()));
+            });
+            for (Path folder : folders) {
+                if (!Files.isDirectory(folder)) continue;
+                try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(folder, SNAPSHOT_PREFIX + "*")) {
+                    for (Path snapshot : snapshots) {
+                        if (!isCurrent.test(snapshot.getFileName().toString())) deleteQuietly(snapshot);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf(e, "Failed to delete the stale issues snapshots for Analysis ID %s", analysisId);
+        } finally {
+            graphService.getCentralJanusGraph().tx().rollback();
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf(e, "Failed to delete %s", path);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the merges of the analysis graphs into the central graph on its own bounded pool of threads so that the
+ * status updates from the executors keep on being consumed while a merge is in progress.
+ * When the merge queue is full, the submitter waits for a slot to become available.
+ * Merges for the same analysis never run concurrently.
+ */
+@ApplicationScoped
+public class MergeExecutor {
+    private static final Logger LOG = Logger.getLogger(MergeExecutor.class);
+
+    @ConfigProperty(defaultValue = "1", name = "io.tackle.windup.rest.graph.merge.executor.threads")
+    int threads;
+
+    @ConfigProperty(defaultValue = "10", name = "io.tackle.windup.rest.graph.merge.executor.queue-size")
+    int queueSize;
+
+    private ThreadPoolExecutor executor;
+    private final Map<String, Object> analysisLocks = new ConcurrentHashMap<>();
+    private final AtomicLong mergesCompleted = new AtomicLong();
+    private final AtomicLong mergesFailed = new AtomicLong();
+    private final AtomicLong lastMergeDuration = new AtomicLong();
+    private final AtomicLong maxMergeDuration = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                (merge, threadPoolExecutor) -> {
+                    // backpressure: the submitter waits for the queue to have room for this merge
+                    if (threadPoolExecutor.isShutdown()) throw new RejectedExecutionException("Merge executor has been shut down");
+                    try {
+                        threadPoolExecutor.getQueue().put(merge);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(e);
+                    }
+                });
+    }
+
+    @PreDestroy
+    void destroy() {
+        executor.shutdown();
+    }
+
+    public void submit(String analysisId, Runnable merge) {
+        final long queued = System.currentTimeMillis();
+        executor.execute(() -> {
+            final long start = System.currentTimeMillis();
+            try {
+                synchronized (analysisLocks.computeIfAbsent(analysisId, id -> new Object())) {
+                    merge.run();
+                }
+                mergesCompleted.incrementAndGet();
+            } catch (Exception e) {
+                mergesFailed.incrementAndGet();
+                LOG.errorf(e, "Merge for Analysis ID %s failed", analysisId);
+            } finally {
+                final long duration = System.currentTimeMillis() - start;
+                lastMergeDuration.set(duration);
+                maxMergeDuration.accumulateAndGet(duration, Math::max);
+                LOG.infof("Merge for Analysis ID %s took %d ms after waiting %d ms in queue (%d merges still queued)", analysisId, duration, start - queued, getQueueDepth());
+            }
+        });
+        LOG.debugf("Merge for Analysis ID %s queued (%d merges queued)", analysisId, getQueueDepth());
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveMerges() {
+        return executor.getActiveCount();
+    }
+
+    public long getMergesCompleted() {
+        return mergesCompleted.get();
+    }
+
+    public long getMergesFailed() {
+        return mergesFailed.get();
+    }
+
+    public long getLastMergeDuration() {
+        return lastMergeDuration.get();
+    }
+
+    public long getMaxMergeDuration() {
+        return maxMergeDuration.get();
+    }
+}
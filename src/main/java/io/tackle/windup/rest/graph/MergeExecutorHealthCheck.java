@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph;
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Exposes the merge queue depth and the merge timings in the {@code /q/health/ready} response.
+ */
+@Readiness
+@ApplicationScoped
+public class MergeExecutorHealthCheck implements HealthCheck {
+
+    @Inject
+    MergeExecutor mergeExecutor;
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("Central graph merge executor")
+                .up()
+                .withData("queueDepth", mergeExecutor.getQueueDepth())
+                .withData("activeMerges", mergeExecutor.getActiveMerges())
+                .withData("mergesCompleted", mergeExecutor.getMergesCompleted())
+                .withData("mergesFailed", mergeExecutor.getMergesFailed())
+                .withData("lastMergeDurationMillis", mergeExecutor.getLastMergeDuration())
+                .withData("maxMergeDurationMillis", mergeExecutor.getMaxMergeDuration())
+                .build();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph;
+
+import io.tackle.windup.rest.dto.PortfolioSummaryDTO;
+import io.tackle.windup.rest.graph.model.AnalysisModel;
+import io.tackle.windup.rest.graph.model.ExecutionSummaryModel;
+import io.tackle.windup.rest.graph.model.WindupExecutionModel;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Rolls up the numbers of all the completed analyses, reading each analysis in parallel on a fork/join pool.
+ * The result is kept until an analysis is merged, run again, deleted or fails to be merged
+ * and the concurrent requests arriving while it's being computed wait for the same computation.
+ */
+@ApplicationScoped
+public class PortfolioService {
+    private static final Logger LOG = Logger.getLogger(PortfolioService.class);
+
+    @ConfigProperty(defaultValue = "4", name = "io.tackle.windup.rest.portfolio.parallelism")
+    int parallelism;
+
+    @ConfigProperty(defaultValue = "50", name = "io.tackle.windup.rest.portfolio.top-size")
+    int topSize;
+
+    @Inject
+    GraphService graphService;
+
+    private ForkJoinPool pool;
+    private PortfolioSummaryDTO portfolioSummary;
+    private CompletableFuture<PortfolioSummaryDTO> portfolioSummaryInProgress;
+    // incremented at each invalidation so that a rollup started before it is not cached
+    private long version;
+
+    /**
+     * The numbers of a single analysis, combined pairwise by the fork/join tasks into the left one
+     */
+    private static class Rollup {
+        long numberAnalyses;
+        long numberIssues;
+        long totalEffort;
+        final Map<String, Long> numberIssuesPerCategory = new HashMap<>();
+        final Map<String, Long> numberIssuesPerRule = new HashMap<>();
+
+        Rollup combine(Rollup other) {
+            numberAnalyses += other.numberAnalyses;
+            numberIssues += other.numberIssues;
+            totalEffort += other.totalEffort;
+            other.numberIssuesPerCategory.forEach((category, issues) -> numberIssuesPerCategory.merge(category, issues, Long::sum));
+            other.numberIssuesPerRule.forEach((rule, issues) -> numberIssuesPerRule.merge(rule, issues, Long::sum));
+            return this;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    void destroy() {
+        pool.shutdown();
+    }
+
+    public PortfolioSummaryDTO getPortfolioSummary() throws ExecutionException, InterruptedException {
+        final long startVersion;
+        final CompletableFuture<PortfolioSummaryDTO> summaryInProgress;
+        synchronized (this) {
+            if (portfolioSummary != null) return portfolioSummary;
+            if (portfolioSummaryInProgress != null) {
+                summaryInProgress = portfolioSummaryInProgress;
+                startVersion = -1;
+            } else {
+                summaryInProgress = portfolioSummaryInProgress = new CompletableFuture<>();
+                startVersion = version;
+            }
+        }
+        // another request is already computing it
+        if (startVersion < 0) return summaryInProgress.get();
+        try {
+            final PortfolioSummaryDTO summary = computePortfolioSummary();
+            synchronized (this) {
+                if (version == startVersion) portfolioSummary = summary;
+                if (portfolioSummaryInProgress == summaryInProgress) portfolioSummaryInProgress = null;
+            }
+            summaryInProgress.complete(summary);
+            return summary;
+        } catch (ExecutionException | InterruptedException | RuntimeException e) {
+            synchronized (this) {
+                if (portfolioSummaryInProgress == summaryInProgress) portfolioSummaryInProgress = null;
+            }
+            summaryInProgress.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private PortfolioSummaryDTO computePortfolioSummary() throws ExecutionException, InterruptedException {
+        final long start = System.currentTimeMillis();
+        final List<Long> analysisIds = findCompletedAnalysisIds();
+        final Rollup rollup = pool.submit(() -> analysisIds.parallelStream()
+                        .map(this::rollup)
+                        .reduce(Rollup::combine)
+                        .orElseGet(Rollup::new))
+                .get();
+        final PortfolioSummaryDTO summary = new PortfolioSummaryDTO();
+        summary.numberAnalyses = rollup.numberAnalyses;
+        summary.numberIssues = rollup.numberIssues;
+        summary.totalEffort = rollup.totalEffort;
+        summary.numberIssuesPerCategory = rollup.numberIssuesPerCategory;
+        summary.numberIssuesPerRule = rollup.numberIssuesPerRule.entrySet()
+                .stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(topSize)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Long::sum, HashMap::new));
+        summary.timeComputed = System.currentTimeMillis();
+        LOG.infof("Rolled up %d analyses in %d ms", summary.numberAnalyses, summary.timeComputed - start);
+        return summary;
+    }
+
+    /**
+     * To be invoked once an analysis has been merged, run again, deleted or failed to be merged:
+     * the requests arriving from now on don't wait for a computation already in progress
+     */
+    public synchronized void invalidate() {
+        version++;
+        portfolioSummary = null;
+        portfolioSummaryInProgress = null;
+    }
+
+    private List<Long> findCompletedAnalysisIds() {
+        try {
+            graphService.getCentralJanusGraph().tx().rollback();
+            return graphService.getAnalysesGraphTraversal(AnalysisModel.Status.COMPLETED)
+                    .<Long>values(AnalysisModel.ANALYSIS_ID)
+                    .toList();
+        } finally {
+            graphService.getCentralJanusGraph().tx().rollback();
+        }
+    }
+
+    /**
+     * Runs on a worker thread of the pool which has its own transaction to be closed once done
+     */
+    private Rollup rollup(long analysisId) {
+        final Rollup rollup = new Rollup();
+        try {
+            graphService.getCentralJanusGraph().tx().rollback();
+            // the latest execution with a summary, i.e. the one whose issues are the current ones
+            final WindupExecutionModel windupExecutionModel = graphService.findWindupExecutionModelByAnalysisId(analysisId)
+                    .stream()
+                    .filter(execution -> execution.getSummary() != null || execution.getTotalStoryPoints() != null)
+                    .findFirst()
+                    .orElse(null);
+            if (windupExecutionModel == null) return rollup;
+            rollup.numberAnalyses = 1;
+            final ExecutionSummaryModel executionSummary = windupExecutionModel.getSummary();
+            if (executionSummary != null) {
+                if (executionSummary.getNumberIssues() != null) rollup.numberIssues = executionSummary.getNumberIssues();
+                if (executionSummary.getTotalEffort() != null) rollup.totalEffort = executionSummary.getTotalEffort();
+                if (executionSummary.getNumberIssuesPerCategory() != null) rollup.numberIssuesPerCategory.putAll(executionSummary.getNumberIssuesPerCategory());
+                // only the top rules of each analysis are available so the top rules of the portfolio are approximated
+                if (executionSummary.getNumberIssuesPerRule() != null) rollup.numberIssuesPerRule.putAll(executionSummary.getNumberIssuesPerRule());
+            } else {
+                // executions merged before the summaries were introduced
+                if (windupExecutionModel.getTotalStoryPoints() != null) rollup.totalEffort = windupExecutionModel.getTotalStoryPoints();
+                if (windupExecutionModel.getNumberIssuesPerCategory() != null) {
+                    windupExecutionModel.getNumberIssuesPerCategory().forEach((category, issues) -> {
+                        rollup.numberIssuesPerCategory.merge(category.toString(), issues, Long::sum);
+                        rollup.numberIssues += issues;
+                    });
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Failed to roll up Analysis ID %d, it's not part of the portfolio numbers", analysisId);
+            return new Rollup();
+        } finally {
+            graphService.getCentralJanusGraph().tx().rollback();
+        }
+        return rollup;
+    }
+}
@@ -36,6 +36,11 @@ public interface AnalysisModel extends WindupVertexFrame {
     String LAST_UPDATE = TYPE + "-LastUpdate";
     String CREATED = TYPE + "-Created";
     String OWNS = TYPE + "-Owns";
+    String GENERATION = TYPE + "-Generation";
+    String LATEST_TIME_QUEUED = TYPE + "-LatestTimeQueued";
+    String LATEST_STATUS = TYPE + "-LatestStatus";
+    String VERSION = TYPE + "-Version";
+    String ISSUES_TIME_QUEUED = TYPE + "-IssuesTimeQueued";
 
     @Property(ANALYSIS_ID)
     Long getAnalysisId();
@@ -67,6 +72,67 @@ public interface AnalysisModel extends WindupVertexFrame {
     @Property(CREATED)
     void setCreated(long created);
 
+    /**
+     * Contains the generation of the analysis subgraph, in the central graph, visible to the readers
+     */
+    @Property(GENERATION)
+    String getGeneration();
+
+    /**
+     * Sets the generation of the analysis subgraph, in the central graph, visible to the readers
+     */
+    @Property(GENERATION)
+    void setGeneration(final String generation);
+
+    /**
+     * Contains the time the latest execution has been queued (or the creation date if there's none)
+     * to sort the analyses without traversing their executions
+     */
+    @Property(LATEST_TIME_QUEUED)
+    Long getLatestTimeQueued();
+
+    /**
+     * Sets the time the latest execution has been queued
+     */
+    @Property(LATEST_TIME_QUEUED)
+    void setLatestTimeQueued(final Long latestTimeQueued);
+
+    /**
+     * Contains the same value as {@link #getStatus()} but in a key that, unlike the status one, is indexed
+     */
+    @Property(LATEST_STATUS)
+    String getLatestStatus();
+
+    /**
+     * Sets the same value as {@link #setStatus(Status)} but in a key that, unlike the status one, is indexed
+     */
+    @Property(LATEST_STATUS)
+    void setLatestStatus(final String latestStatus);
+
+    /**
+     * Contains the version of the latest change to the analysis, increasing with each change
+     */
+    @Property(VERSION)
+    Long getVersion();
+
+    /**
+     * Sets the version of the latest change to the analysis
+     */
+    @Property(VERSION)
+    void setVersion(final Long version);
+
+    /**
+     * Contains the time the execution whose issues are in the current generation has been queued
+     */
+    @Property(ISSUES_TIME_QUEUED)
+    Long getIssuesTimeQueued();
+
+    /**
+     * Sets the time the execution whose issues are in the current generation has been queued
+     */
+    @Property(ISSUES_TIME_QUEUED)
+    void setIssuesTimeQueued(final Long issuesTimeQueued);
+
     /**
      * Contains a collection of {@link WindupExecution}s.
      */
@@ -85,6 +151,7 @@ public interface AnalysisModel extends WindupVertexFrame {
         MERGING,
         CANCELLED,
         COMPLETED,
-        DELETED
+        DELETED,
+        FAILED
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph.model;
+
+import org.jboss.windup.graph.Property;
+import org.jboss.windup.graph.model.TypeValue;
+import org.jboss.windup.graph.model.WindupVertexFrame;
+
+import java.util.Map;
+
+/**
+ * Aggregated numbers about the issues found by an execution, computed once when the analysis graph
+ * is merged into the central graph.
+ */
+@TypeValue(ExecutionSummaryModel.TYPE)
+public interface ExecutionSummaryModel extends WindupVertexFrame {
+
+    String TYPE = "ExecutionSummaryModel";
+    String NUMBER_ISSUES = TYPE + "-NumberIssues";
+    String TOTAL_EFFORT = TYPE + "-TotalEffort";
+    String NUMBER_ISSUES_PER_CATEGORY = TYPE + "-NumberIssuesPerCategory";
+    String NUMBER_ISSUES_PER_RULE = TYPE + "-NumberIssuesPerRule";
+    String NUMBER_ISSUES_PER_FILE = TYPE + "-NumberIssuesPerFile";
+    String NUMBER_ISSUES_PER_TAG = TYPE + "-NumberIssuesPerTag";
+    String NUMBER_ISSUES_PER_EFFORT = TYPE + "-NumberIssuesPerEffort";
+
+    /**
+     * Contains the number of issues
+     */
+    @Property(NUMBER_ISSUES)
+    Long getNumberIssues();
+
+    /**
+     * Sets the number of issues
+     */
+    @Property(NUMBER_ISSUES)
+    void setNumberIssues(Long numberIssues);
+
+    /**
+     * Contains the sum of the issues' effort
+     */
+    @Property(TOTAL_EFFORT)
+    Long getTotalEffort();
+
+    /**
+     * Sets the sum of the issues' effort
+     */
+    @Property(TOTAL_EFFORT)
+    void setTotalEffort(Long totalEffort);
+
+    /**
+     * Contains the number of issues per each issue category (i.e. severity)
+     */
+    @Property(NUMBER_ISSUES_PER_CATEGORY)
+    Map<String, Long> getNumberIssuesPerCategory();
+
+    /**
+     * Sets the number of issues per each issue category (i.e. severity)
+     */
+    @Property(NUMBER_ISSUES_PER_CATEGORY)
+    void setNumberIssuesPerCategory(Map<String, Long> numberIssuesPerCategory);
+
+    /**
+     * Contains the number of issues for the rules with the most issues
+     */
+    @Property(NUMBER_ISSUES_PER_RULE)
+    Map<String, Long> getNumberIssuesPerRule();
+
+    /**
+     * Sets the number of issues for the rules with the most issues
+     */
+    @Property(NUMBER_ISSUES_PER_RULE)
+    void setNumberIssuesPerRule(Map<String, Long> numberIssuesPerRule);
+
+    /**
+     * Contains the number of issues for the files with the most issues
+     */
+    @Property(NUMBER_ISSUES_PER_FILE)
+    Map<String, Long> getNumberIssuesPerFile();
+
+    /**
+     * Sets the number of issues for the files with the most issues
+     */
+    @Property(NUMBER_ISSUES_PER_FILE)
+    void setNumberIssuesPerFile(Map<String, Long> numberIssuesPerFile);
+
+    /**
+     * Contains the number of issues per each tag (e.g. the technologies involved)
+     */
+    @Property(NUMBER_ISSUES_PER_TAG)
+    Map<String, Long> getNumberIssuesPerTag();
+
+    /**
+     * Sets the number of issues per each tag (e.g. the technologies involved)
+     */
+    @Property(NUMBER_ISSUES_PER_TAG)
+    void setNumberIssuesPerTag(Map<String, Long> numberIssuesPerTag);
+
+    /**
+     * Contains the effort histogram, i.e. the number of issues per each effort value
+     */
+    @Property(NUMBER_ISSUES_PER_EFFORT)
+    Map<String, Long> getNumberIssuesPerEffort();
+
+    /**
+     * Sets the effort histogram, i.e. the number of issues per each effort value
+     */
+    @Property(NUMBER_ISSUES_PER_EFFORT)
+    void setNumberIssuesPerEffort(Map<String, Long> numberIssuesPerEffort);
+}
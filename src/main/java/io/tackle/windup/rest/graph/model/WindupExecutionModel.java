@@ -51,6 +51,7 @@ public interface WindupExecutionModel extends WindupVertexFrame {
     String APPLICATION_FILE_NAME = "applicationFileName";
     String TOTAL_STORY_POINT = "totalStoryPoint";
     String NUMBER_ISSUES_PER_CATEGORY = "numberIssuesPerCategory";
+    String SUMMARY = "summary";
 
     @Property(WINDUP_EXECUTION_ID)
     long getWindupExecutionId();
@@ -244,6 +245,18 @@ public interface WindupExecutionModel extends WindupVertexFrame {
     @Property(NUMBER_ISSUES_PER_CATEGORY)
     void setNumberIssuesPerCategory(Map<Object, Long> numberIssuePerCategory);
 
+    /**
+     * Get the summary of the issues identified in the execution.
+     */
+    @Adjacency(label = SUMMARY, direction = Direction.OUT)
+    ExecutionSummaryModel getSummary();
+
+    /**
+     * Set the summary of the issues identified in the execution.
+     */
+    @Adjacency(label = SUMMARY, direction = Direction.OUT)
+    void setSummary(ExecutionSummaryModel summary);
+
     /**
      * Get the analyzed application file name (based on the one application per analysis assumption)
      */
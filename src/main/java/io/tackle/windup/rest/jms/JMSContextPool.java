@@ -0,0 +1,257 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.jms;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSContext;
+import javax.jms.JMSProducer;
+import javax.jms.JMSRuntimeException;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.Topic;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a bounded pool of JMS contexts, all sharing the single connection of a root context, so that sending
+ * a message doesn't require to open a new connection to the broker.
+ * A context can be used by only one thread at a time: it has to be borrowed and then released once done.
+ * When the connection is opened again, the contexts created with the previous one are closed instead of being reused.
+ * The destinations are created once and cached.
+ */
+@ApplicationScoped
+public class JMSContextPool {
+    private static final Logger LOG = Logger.getLogger(JMSContextPool.class);
+
+    @ConfigProperty(defaultValue = "8", name = "io.tackle.windup.rest.jms.producer.pool-size")
+    int poolSize;
+
+    @ConfigProperty(defaultValue = "30000", name = "io.tackle.windup.rest.jms.producer.borrow-timeout")
+    long borrowTimeout;
+
+    @Inject
+    ConnectionFactory connectionFactory;
+
+    private JMSContext rootContext;
+    // incremented each time the root context is dropped, guarded by this
+    private long connectionGeneration;
+    private BlockingQueue<PooledContext> idleContexts;
+    private final AtomicInteger contexts = new AtomicInteger();
+    private final Map<String, Queue> queues = new ConcurrentHashMap<>();
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong borrowWaits = new AtomicLong();
+    private final AtomicLong brokenContexts = new AtomicLong();
+
+    /**
+     * A pooled context with its producer
+     */
+    public static class PooledContext {
+        public final JMSContext context;
+        public final JMSProducer producer;
+        // the generation of the connection the context has been created with
+        private final long connectionGeneration;
+
+        private PooledContext(JMSContext context, long connectionGeneration) {
+            this.context = context;
+            this.producer = context.createProducer();
+            this.connectionGeneration = connectionGeneration;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        idleContexts = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    @PreDestroy
+    synchronized void destroy() {
+        idleContexts.forEach(pooledContext -> closeQuietly(pooledContext.context));
+        if (rootContext != null) closeQuietly(rootContext);
+    }
+
+    /**
+     * Waits at most {@code borrowTimeout} milliseconds for a context to be available
+     */
+    public PooledContext borrow() {
+        borrows.incrementAndGet();
+        PooledContext pooledContext = pollIdleContext();
+        if (pooledContext != null) return pooledContext;
+        if (contexts.incrementAndGet() <= poolSize) {
+            try {
+                return createContext();
+            } catch (RuntimeException e) {
+                contexts.decrementAndGet();
+                throw e;
+            }
+        }
+        contexts.decrementAndGet();
+        borrowWaits.incrementAndGet();
+        try {
+            pooledContext = idleContexts.poll(borrowTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JMSRuntimeException("Interrupted while waiting for a JMS context");
+        }
+        if (pooledContext == null) throw new JMSRuntimeException(String.format("No JMS context available after %d ms", borrowTimeout));
+        return pooledContext;
+    }
+
+    /**
+     * @param broken if the context failed so that it's closed instead of being reused and, since the connection
+     *               could be gone, the next contexts are created with a new one
+     */
+    public void release(PooledContext pooledContext, boolean broken) {
+        if (broken) {
+            brokenContexts.incrementAndGet();
+            discard(pooledContext);
+            resetConnection(pooledContext.connectionGeneration);
+        } else if (!isCurrent(pooledContext)) {
+            discard(pooledContext);
+        } else {
+            idleContexts.offer(pooledContext);
+        }
+    }
+
+    /**
+     * Drops the root context, unless it has already been opened again after the generation provided,
+     * and closes the idle contexts created with it
+     */
+    synchronized void resetConnection(long generation) {
+        if (generation != connectionGeneration) return;
+        connectionGeneration++;
+        if (rootContext != null) {
+            closeQuietly(rootContext);
+            rootContext = null;
+        }
+        PooledContext idleContext;
+        while ((idleContext = idleContexts.poll()) != null) discard(idleContext);
+    }
+
+    /**
+     * @return an idle context created with the current connection, if any
+     */
+    private PooledContext pollIdleContext() {
+        PooledContext pooledContext;
+        while ((pooledContext = idleContexts.poll()) != null) {
+            if (isCurrent(pooledContext)) return pooledContext;
+            discard(pooledContext);
+        }
+        return null;
+    }
+
+    private synchronized boolean isCurrent(PooledContext pooledContext) {
+        return pooledContext.connectionGeneration == connectionGeneration;
+    }
+
+    private void discard(PooledContext pooledContext) {
+        closeQuietly(pooledContext.context);
+        contexts.decrementAndGet();
+    }
+
+    /**
+     * Creates, on the shared connection, a transacted context to be closed by the caller
+     */
+    public synchronized JMSContext createTransactedContext() {
+        try {
+            return getRootContext().createContext(Session.SESSION_TRANSACTED);
+        } catch (JMSRuntimeException e) {
+            LOG.warnf(e, "Failed to create a transacted JMS context, the connection will be opened again");
+            resetConnection(connectionGeneration);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the generation of the current connection, to be provided to {@link #resetConnection(long)}
+     */
+    synchronized long getConnectionGeneration() {
+        return connectionGeneration;
+    }
+
+    public Queue getQueue(String name) {
+        return queues.computeIfAbsent(name, queueName -> getRootContext().createQueue(queueName));
+    }
+
+    public Topic getTopic(String name) {
+        return topics.computeIfAbsent(name, topicName -> getRootContext().createTopic(topicName));
+    }
+
+    public int getContexts() {
+        return contexts.get();
+    }
+
+    public int getIdleContexts() {
+        return idleContexts.size();
+    }
+
+    public long getBorrows() {
+        return borrows.get();
+    }
+
+    public long getBorrowWaits() {
+        return borrowWaits.get();
+    }
+
+    public long getBrokenContexts() {
+        return brokenContexts.get();
+    }
+
+    private synchronized JMSContext getRootContext() {
+        if (rootContext == null) {
+            LOG.debugf("JMS Connection Factory: %s", connectionFactory.toString());
+            rootContext = connectionFactory.createContext(Session.AUTO_ACKNOWLEDGE);
+            // the broker closing the connection makes all its contexts unusable
+            final long generation = connectionGeneration;
+            rootContext.setExceptionListener(e -> {
+                LOG.warnf(e, "The JMS connection failed, it will be opened again");
+                resetConnection(generation);
+            });
+        }
+        return rootContext;
+    }
+
+    private synchronized PooledContext createContext() {
+        try {
+            return new PooledContext(getRootContext().createContext(Session.AUTO_ACKNOWLEDGE), connectionGeneration);
+        } catch (JMSRuntimeException e) {
+            // the connection could be gone so the next context will be created with a new one
+            LOG.warnf(e, "Failed to create a JMS context, the connection will be opened again");
+            resetConnection(connectionGeneration);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(JMSContext context) {
+        try {
+            context.close();
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Failed to close the JMS context");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.jms;
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Exposes the usage of the JMS contexts pool in the {@code /q/health/ready} response.
+ */
+@Readiness
+@ApplicationScoped
+public class JMSContextPoolHealthCheck implements HealthCheck {
+
+    @Inject
+    JMSContextPool jmsContextPool;
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("JMS producer contexts pool")
+                .up()
+                .withData("contexts", jmsContextPool.getContexts())
+                .withData("idleContexts", jmsContextPool.getIdleContexts())
+                .withData("borrows", jmsContextPool.getBorrows())
+                .withData("borrowWaits", jmsContextPool.getBorrowWaits())
+                .withData("brokenContexts", jmsContextPool.getBrokenContexts())
+                .build();
+    }
+}
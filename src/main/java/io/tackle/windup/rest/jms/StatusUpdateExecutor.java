@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.jms;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the status updates from the executors on a fixed number of single threaded stripes:
+ * the updates for the same analysis always go to the same stripe so that they're applied in the order
+ * they have been received while the updates for different analyses are applied concurrently.
+ * When the queue of a stripe is full, the submitter waits for a slot to become available.
+ */
+@ApplicationScoped
+public class StatusUpdateExecutor {
+    private static final Logger LOG = Logger.getLogger(StatusUpdateExecutor.class);
+
+    @ConfigProperty(defaultValue = "4", name = "io.tackle.windup.rest.jms.status-update.executor.threads")
+    int threads;
+
+    @ConfigProperty(defaultValue = "100", name = "io.tackle.windup.rest.jms.status-update.executor.queue-size")
+    int queueSize;
+
+    private ThreadPoolExecutor[] stripes;
+
+    @PostConstruct
+    void init() {
+        stripes = new ThreadPoolExecutor[threads];
+        for (int i = 0; i < threads; i++) {
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                    (update, threadPoolExecutor) -> {
+                        // backpressure: the submitter waits for the queue to have room for this update
+                        if (threadPoolExecutor.isShutdown()) throw new RejectedExecutionException("Status update executor has been shut down");
+                        try {
+                            threadPoolExecutor.getQueue().put(update);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException(e);
+                        }
+                    });
+        }
+    }
+
+    @PreDestroy
+    void destroy() {
+        for (ThreadPoolExecutor stripe : stripes) stripe.shutdown();
+    }
+
+    /**
+     * Stops accepting new updates and waits, at most {@code timeout} milliseconds overall,
+     * for the ones already submitted to be applied
+     */
+    public void drain(long timeout) throws InterruptedException {
+        for (ThreadPoolExecutor stripe : stripes) stripe.shutdown();
+        final long deadline = System.currentTimeMillis() + timeout;
+        for (ThreadPoolExecutor stripe : stripes) {
+            if (!stripe.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                LOG.warnf("%d status updates have not been applied before shutting down", stripe.getQueue().size());
+            }
+        }
+    }
+
+    public void submit(long analysisId, Runnable update) {
+        stripes[(int) Math.floorMod(analysisId, (long) stripes.length)].execute(() -> {
+            try {
+                update.run();
+            } catch (Exception e) {
+                LOG.errorf(e, "Status update for Analysis ID %d failed", analysisId);
+            }
+        });
+    }
+
+    public int getQueueDepth() {
+        int queueDepth = 0;
+        for (ThreadPoolExecutor stripe : stripes) queueDepth += stripe.getQueue().size();
+        return queueDepth;
+    }
+}
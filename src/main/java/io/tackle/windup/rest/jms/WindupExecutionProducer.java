@@ -30,15 +30,18 @@ import org.jboss.windup.web.services.model.WindupExecution;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
-import javax.jms.ConnectionFactory;
 import javax.jms.JMSContext;
 import javax.jms.JMSException;
-import javax.jms.Session;
+import javax.jms.JMSProducer;
+import javax.jms.JMSRuntimeException;
+import javax.jms.Queue;
 import javax.jms.TextMessage;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -51,66 +54,147 @@ public class WindupExecutionProducer {
     static final String MESSAGE_PROPERTY_EXECUTION_ID = "executionId";
 
     @Inject
-    ConnectionFactory connectionFactory;
+    JMSContextPool jmsContextPool;
+
+    /**
+     * Sends a message with a pooled context
+     */
+    @FunctionalInterface
+    private interface Sender<T> {
+        T send(JMSContextPool.PooledContext pooledContext) throws JMSException, IOException;
+    }
 
     public WindupExecution triggerAnalysis(AnalysisModel analysisModel, String applicationFilePath, String baseOutputPath, String sources, String targets, String packages, Boolean sourceMode) {
-        LOG.debugf("JMS Connection Factory: %s", connectionFactory.toString());
-        try (JMSContext context = connectionFactory.createContext(Session.AUTO_ACKNOWLEDGE)) {
-            final TextMessage executionRequestMessage = context.createTextMessage();
+        return sendWithRetry("Failed to create WindupExecution stream message!", pooledContext -> {
+            final TextMessage executionRequestMessage = pooledContext.context.createTextMessage();
+            final WindupExecution windupExecution = createExecutionRequest(executionRequestMessage, analysisModel.getAnalysisId(), applicationFilePath, baseOutputPath, sources, targets, packages, sourceMode);
+            pooledContext.producer.send(jmsContextPool.getQueue("executorQueue"), executionRequestMessage);
+            return windupExecution;
+        });
+    }
 
-            executionRequestMessage.setLongProperty(MESSAGE_PROPERTY_PROJECT_ID, analysisModel.getAnalysisId());
-            executionRequestMessage.setLongProperty(MESSAGE_PROPERTY_EXECUTION_ID, System.currentTimeMillis());
+    /**
+     * A context failing, e.g. because the connection has been lost while it was idle, is discarded
+     * and the message is sent once more with a context created with a new connection
+     */
+    private <T> T sendWithRetry(String failureMessage, Sender<T> sender) {
+        for (int attempt = 1; ; attempt++) {
+            final JMSContextPool.PooledContext pooledContext = jmsContextPool.borrow();
+            boolean broken = false;
+            try {
+                return sender.send(pooledContext);
+            } catch (JMSException | JMSRuntimeException e) {
+                broken = true;
+                if (attempt > 1) throw new RuntimeException(failureMessage, e);
+                LOG.warnf(e, "Failed to send with a pooled JMS context, retrying with a new one");
+            } catch (IOException e) {
+                throw new RuntimeException(failureMessage, e);
+            } finally {
+                jmsContextPool.release(pooledContext, broken);
+            }
+        }
+    }
 
-            final AnalysisContext analysisContext = new AnalysisContext();
-            analysisContext.setGenerateStaticReports(true);
+    /**
+     * Creates, without sending them, the execution requests for all the applications, sharing the same options,
+     * so that the executions can be stored before their requests are sent with {@link #triggerAnalyses(List)}
+     * @param applicationFilePaths the path of the application file for each analysis ID
+     * @return the executions in the same order of the analysis IDs
+     */
+    public List<WindupExecution> createExecutionRequests(Map<Long, String> applicationFilePaths, String baseOutputPath, String sources, String targets, String packages, Boolean sourceMode) {
+        return applicationFilePaths.entrySet()
+                .stream()
+                .map(applicationFilePath -> newExecutionRequest(applicationFilePath.getKey(), applicationFilePath.getValue(), baseOutputPath, sources, targets, packages, sourceMode))
+                .collect(Collectors.toList());
+    }
 
-            analysisContext.setAdvancedOptions(Stream.of(targets.split(",")).map(targetValue -> new AdvancedOption("target", targetValue.trim())).collect(Collectors.toList()));
-            if (StringUtils.isNotBlank(sources)) analysisContext.getAdvancedOptions().addAll(Stream.of(sources.split(",")).map(sourceValue -> new AdvancedOption("source", sourceValue.trim())).collect(Collectors.toList()));
-            if (StringUtils.isNotBlank(packages)) analysisContext.setIncludePackages(Stream.of(packages.split(",")).map(packageValue -> new Package(packageValue.trim(), packageValue.trim(), false)).collect(Collectors.toSet()));
-            if (sourceMode != null) analysisContext.getAdvancedOptions().add(new AdvancedOption("sourceMode", sourceMode.toString()));
+    /**
+     * Sends the execution requests within a single JMS transaction so that either all of them or none is sent.
+     */
+    public void triggerAnalyses(List<WindupExecution> windupExecutions) {
+        final long connectionGeneration = jmsContextPool.getConnectionGeneration();
+        try {
+            sendExecutionRequests(windupExecutions);
+        } catch (RuntimeException e) {
+            // the transaction has been rolled back so the requests are sent once more with a new connection
+            LOG.warnf(e, "Failed to send the Windup execution requests, retrying with a new connection");
+            jmsContextPool.resetConnection(connectionGeneration);
+            sendExecutionRequests(windupExecutions);
+        }
+    }
 
-            final RulesPath rulesPath = new RulesPath();
-            rulesPath.setPath("/opt/mta-cli/rules");
-            rulesPath.setScanRecursively(true);
-            rulesPath.setRulesPathType(PathType.SYSTEM_PROVIDED);
-            analysisContext.setRulesPaths(Collections.singleton(rulesPath));
+    private void sendExecutionRequests(List<WindupExecution> windupExecutions) {
+        try (JMSContext context = jmsContextPool.createTransactedContext()) {
+            final JMSProducer producer = context.createProducer();
+            final Queue executorQueue = jmsContextPool.getQueue("executorQueue");
+            try {
+                for (WindupExecution windupExecution : windupExecutions) {
+                    final TextMessage executionRequestMessage = context.createTextMessage();
+                    setExecutionRequest(executionRequestMessage, windupExecution);
+                    producer.send(executorQueue, executionRequestMessage);
+                }
+                context.commit();
+                LOG.infof("Sent %d Windup execution requests", windupExecutions.size());
+            } catch (JMSException | JMSRuntimeException | IOException e) {
+                context.rollback();
+                throw new RuntimeException("Failed to send the WindupExecution stream messages!", e);
+            }
+        }
+    }
 
-            final RegisteredApplication registeredApplication = new RegisteredApplication();
-            registeredApplication.setInputPath(applicationFilePath);
-            analysisContext.setApplications(Set.of(registeredApplication));
+    private static WindupExecution createExecutionRequest(TextMessage executionRequestMessage, long analysisId, String applicationFilePath, String baseOutputPath, String sources, String targets, String packages, Boolean sourceMode) throws JMSException, IOException {
+        final WindupExecution windupExecution = newExecutionRequest(analysisId, applicationFilePath, baseOutputPath, sources, targets, packages, sourceMode);
+        setExecutionRequest(executionRequestMessage, windupExecution);
+        return windupExecution;
+    }
 
-            final WindupExecution windupExecution = new WindupExecution();
-            windupExecution.setId(executionRequestMessage.getLongProperty(MESSAGE_PROPERTY_PROJECT_ID));
-            windupExecution.setAnalysisContext(analysisContext);
-            windupExecution.setTimeQueued(new GregorianCalendar());
-            windupExecution.setState(ExecutionState.QUEUED);
-            windupExecution.setOutputPath(Path.of(baseOutputPath, Long.toString(analysisModel.getAnalysisId())).toString());
+    private static WindupExecution newExecutionRequest(long analysisId, String applicationFilePath, String baseOutputPath, String sources, String targets, String packages, Boolean sourceMode) {
+        final AnalysisContext analysisContext = new AnalysisContext();
+        analysisContext.setGenerateStaticReports(true);
 
-            final String json = WindupExecutionJSONUtil.serializeToString(windupExecution);
-            executionRequestMessage.setText(json);
-            LOG.infof("Going to send the Windup execution request %s", json);
-            context.createProducer().send(context.createQueue("executorQueue"), executionRequestMessage);
-            return windupExecution;
-        }
-        catch (JMSException | IOException e)
-        {
-            throw new RuntimeException("Failed to create WindupExecution stream message!", e);
-        }
+        analysisContext.setAdvancedOptions(Stream.of(targets.split(",")).map(targetValue -> new AdvancedOption("target", targetValue.trim())).collect(Collectors.toList()));
+        if (StringUtils.isNotBlank(sources)) analysisContext.getAdvancedOptions().addAll(Stream.of(sources.split(",")).map(sourceValue -> new AdvancedOption("source", sourceValue.trim())).collect(Collectors.toList()));
+        if (StringUtils.isNotBlank(packages)) analysisContext.setIncludePackages(Stream.of(packages.split(",")).map(packageValue -> new Package(packageValue.trim(), packageValue.trim(), false)).collect(Collectors.toSet()));
+        if (sourceMode != null) analysisContext.getAdvancedOptions().add(new AdvancedOption("sourceMode", sourceMode.toString()));
+
+        final RulesPath rulesPath = new RulesPath();
+        rulesPath.setPath("/opt/mta-cli/rules");
+        rulesPath.setScanRecursively(true);
+        rulesPath.setRulesPathType(PathType.SYSTEM_PROVIDED);
+        analysisContext.setRulesPaths(Collections.singleton(rulesPath));
+
+        final RegisteredApplication registeredApplication = new RegisteredApplication();
+        registeredApplication.setInputPath(applicationFilePath);
+        analysisContext.setApplications(Set.of(registeredApplication));
+
+        final WindupExecution windupExecution = new WindupExecution();
+        windupExecution.setId(analysisId);
+        windupExecution.setAnalysisContext(analysisContext);
+        windupExecution.setTimeQueued(new GregorianCalendar());
+        windupExecution.setState(ExecutionState.QUEUED);
+        windupExecution.setOutputPath(Path.of(baseOutputPath, Long.toString(analysisId)).toString());
+        return windupExecution;
+    }
+
+    private static void setExecutionRequest(TextMessage executionRequestMessage, WindupExecution windupExecution) throws JMSException, IOException {
+        executionRequestMessage.setLongProperty(MESSAGE_PROPERTY_PROJECT_ID, windupExecution.getId());
+        executionRequestMessage.setLongProperty(MESSAGE_PROPERTY_EXECUTION_ID, System.currentTimeMillis());
+        final String json = WindupExecutionJSONUtil.serializeToString(windupExecution);
+        executionRequestMessage.setText(json);
+        LOG.infof("Going to send the Windup execution request %s", json);
     }
 
     public void cancelAnalysis(long analysisId) {
-        LOG.debugf("JMS Connection Factory: %s", connectionFactory.toString());
-        try (JMSContext context = connectionFactory.createContext(Session.AUTO_ACKNOWLEDGE)) {
+        sendWithRetry("Failed to cancel WindupExecution stream message!", pooledContext -> {
             final WindupExecution windupExecution = new WindupExecution();
             windupExecution.setId(analysisId);
             final String json = WindupExecutionJSONUtil.serializeToString(windupExecution);
-            final TextMessage cancelRequestMessage = context.createTextMessage();
+            final TextMessage cancelRequestMessage = pooledContext.context.createTextMessage();
             cancelRequestMessage.setLongProperty(MESSAGE_PROPERTY_PROJECT_ID, analysisId);
             cancelRequestMessage.setText(json);
             LOG.infof("Going to send the Windup cancel request %s", json);
-            context.createProducer().send(context.createTopic("executorCancellation"), cancelRequestMessage);
-        } catch (JMSException | IOException e) {
-            throw new RuntimeException("Failed to cancel WindupExecution stream message!", e);
-        }
+            pooledContext.producer.send(jmsContextPool.getTopic("executorCancellation"), cancelRequestMessage);
+            return null;
+        });
     }
 }
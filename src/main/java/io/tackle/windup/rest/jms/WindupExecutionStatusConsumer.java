@@ -17,14 +17,20 @@ package io.tackle.windup.rest.jms;
 
 import io.quarkus.runtime.ShutdownEvent;
 import io.quarkus.runtime.StartupEvent;
+import io.tackle.windup.rest.graph.AnalysisCache;
 import io.tackle.windup.rest.graph.GraphService;
+import io.tackle.windup.rest.graph.IssuesSnapshotService;
+import io.tackle.windup.rest.graph.MergeExecutor;
+import io.tackle.windup.rest.graph.PortfolioService;
 import io.tackle.windup.rest.graph.model.AnalysisModel;
 import io.tackle.windup.rest.graph.model.AnalysisModel.Status;
 import io.tackle.windup.rest.graph.model.WindupExecutionModel;
 import io.tackle.windup.rest.resources.WindupBroadcasterResource;
 import io.tackle.windup.rest.util.WindupUtil;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 import org.jboss.windup.web.services.json.WindupExecutionJSONUtil;
+import org.jboss.windup.web.services.model.ExecutionState;
 import org.jboss.windup.web.services.model.WindupExecution;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -33,10 +39,19 @@ import javax.inject.Inject;
 import javax.jms.ConnectionFactory;
 import javax.jms.JMSConsumer;
 import javax.jms.JMSContext;
+import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.Session;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static io.tackle.windup.rest.jms.WindupExecutionProducer.MESSAGE_PROPERTY_EXECUTION_ID;
 import static io.tackle.windup.rest.jms.WindupExecutionProducer.MESSAGE_PROPERTY_PROJECT_ID;
@@ -55,19 +70,70 @@ public class WindupExecutionStatusConsumer implements Runnable {
     @Inject
     WindupBroadcasterResource windupBroadcasterResource;
 
+    @Inject
+    MergeExecutor mergeExecutor;
+
+    @Inject
+    IssuesSnapshotService issuesSnapshotService;
+
+    @Inject
+    AnalysisCache analysisCache;
+
+    @Inject
+    PortfolioService portfolioService;
+
+    @Inject
+    StatusUpdateExecutor statusUpdateExecutor;
+
+    @ConfigProperty(defaultValue = "1000", name = "io.tackle.windup.rest.jms.status-update.flush-interval")
+    long flushInterval;
+
+    @ConfigProperty(defaultValue = "1", name = "io.tackle.windup.rest.jms.status-update.batch-size")
+    int batchSize;
+
+    @ConfigProperty(defaultValue = "500", name = "io.tackle.windup.rest.jms.status-update.batch-timeout")
+    long batchTimeout;
+
+    @ConfigProperty(defaultValue = "10000", name = "io.tackle.windup.rest.jms.status-update.drain-timeout")
+    long drainTimeout;
+
     private final ExecutorService scheduler = Executors.newSingleThreadExecutor();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+    // the latest progress update of each analysis still to be applied, guarded by itself
+    private final Map<Long, Runnable> pendingUpdates = new LinkedHashMap<>();
 
     void onStart(@Observes StartupEvent ev) {
         scheduler.submit(this);
+        if (flushInterval > 0) flusher.scheduleWithFixedDelay(this::flushPendingUpdates, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
     }
 
     void onStop(@Observes ShutdownEvent ev) {
         scheduler.shutdown();
+        flusher.shutdown();
+        try {
+            // the pending progress updates are written before the status update executor is drained
+            if (!flusher.awaitTermination(drainTimeout, TimeUnit.MILLISECONDS)) LOG.warnf("The pending status updates flush is still running");
+            flushPendingUpdates();
+            statusUpdateExecutor.drain(drainTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     @Override
     public void run() {
         LOG.debugf("JMS Connection Factory: %s", connectionFactory.toString());
+        try {
+            if (batchSize > 1) consumeInBatches();
+            else consume();
+        } catch (Throwable throwable) {
+            LOG.fatal("WindupExecutionStatusConsumer.run broken");
+            throwable.printStackTrace();
+            throw new RuntimeException(throwable);
+        }
+    }
+
+    private void consume() throws JMSException, IOException {
         try (JMSContext context = connectionFactory.createContext(Session.AUTO_ACKNOWLEDGE)) {
             JMSConsumer consumer = context.createConsumer(context.createQueue("statusUpdateQueue"));
             while (true) {
@@ -75,52 +141,250 @@ public class WindupExecutionStatusConsumer implements Runnable {
                 if (message == null) return;
                 final String lastUpdate = message.getBody(String.class);
                 LOG.debugf("Last status update from executor = %s", lastUpdate);
-                WindupExecution windupExecution = WindupExecutionJSONUtil.readJSON(lastUpdate);
+                final WindupExecution windupExecution = WindupExecutionJSONUtil.readJSON(lastUpdate);
                 windupBroadcasterResource.broadcastMessage(lastUpdate);
-                WindupExecutionModel windupExecutionModel = graphService.findLatestWindupExecutionModelByWindupExecutionId(windupExecution.getId());
-                windupExecutionModel.setState(windupExecution.getState());
-                windupExecutionModel.setLastModified(windupExecution.getLastModified().getTimeInMillis());
-                windupExecutionModel.setCurrentTask(windupExecution.getCurrentTask());
-                windupExecutionModel.setWorkCompleted(windupExecution.getWorkCompleted());
-                windupExecutionModel.setWorkTotal(windupExecution.getTotalWork());
-                AnalysisModel analysisModel = graphService.findAnalysisModelByAnalysisId(windupExecution.getId());
-                analysisModel.setLastUpdate(lastUpdate);
-                switch (windupExecution.getState()) {
-                    case COMPLETED:
-                        LOG.infof("Executor analysis COMPLETED: %s", lastUpdate);
-                        String id = Long.toString(message.getLongProperty(MESSAGE_PROPERTY_PROJECT_ID));
-                        analysisModel.setStatus(Status.MERGING);
-                        graphService.getCentralGraphTraversalSource().tx().commit();
-                        windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"MERGING\",\"currentTask\":\"Merging into central graph\",\"totalWork\":1,\"workCompleted\":0}", id));
-                        graphService.updateCentralJanusGraph(windupExecution.getOutputPath(), id, Long.toString(message.getLongProperty(MESSAGE_PROPERTY_EXECUTION_ID)));
-                        windupExecutionModel.setTimeFinished(windupExecution.getTimeCompleted().getTimeInMillis());
-                        analysisModel.setStatus(Status.COMPLETED);
-                        windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"MERGED\",\"currentTask\":\"Merged into central graph\",\"totalWork\":1,\"workCompleted\":1}", id));
-                        // TODO delete the application file now
-                        LOG.debug("COMPLETED updateCentralJanusGraph");
-                        break;
-                    case QUEUED:
-                        // the Windup executor pod never sends a status update with this state
-                        break;
-                    case STARTED:
-                        windupExecutionModel.setTimeStarted(windupExecution.getTimeStarted().getTimeInMillis());
-                        analysisModel.setStatus(Status.STARTED);
-                        break;
-                    case FAILED:
-                    case CANCELLED:
-                        LOG.infof("Received 'CANCELLED' for analysis %s", windupExecution.getId());
-                        windupExecutionModel.setTimeFinished(windupExecution.getLastModified().getTimeInMillis());
-                        WindupUtil.deletePath(windupExecutionModel.getOutputPath());
-                        break;
-                    default:
-                        break;
+                // the message is read only by this thread
+                final String id = windupExecution.getState() == ExecutionState.COMPLETED ? Long.toString(message.getLongProperty(MESSAGE_PROPERTY_PROJECT_ID)) : null;
+                final String executionId = windupExecution.getState() == ExecutionState.COMPLETED ? Long.toString(message.getLongProperty(MESSAGE_PROPERTY_EXECUTION_ID)) : null;
+                final Runnable update = () -> applyStatusUpdateAndCommit(lastUpdate, windupExecution, id, executionId);
+                synchronized (pendingUpdates) {
+                    if (flushInterval > 0 && !isTerminal(windupExecution.getState())) {
+                        // write-behind: a progress update supersedes the previous one not applied yet
+                        pendingUpdates.put(windupExecution.getId(), update);
+                    } else {
+                        // the pending progress update goes first to keep the updates of the analysis in order
+                        final Runnable pendingUpdate = pendingUpdates.remove(windupExecution.getId());
+                        if (pendingUpdate != null) statusUpdateExecutor.submit(windupExecution.getId(), pendingUpdate);
+                        statusUpdateExecutor.submit(windupExecution.getId(), update);
+                    }
                 }
-                graphService.getCentralGraphTraversalSource().tx().commit();
             }
-        } catch (Throwable throwable) {
-            LOG.fatal("WindupExecutionStatusConsumer.run broken");
-            throwable.printStackTrace();
-            throw new RuntimeException(throwable);
+        }
+    }
+
+    /**
+     * Drains up to {@code batchSize} messages, waiting at most {@code batchTimeout} milliseconds after the first one,
+     * and applies them within a single graph transaction which is committed before the JMS session.
+     * If the pod dies before the JMS commit, the messages are redelivered and the terminal updates already applied are skipped.
+     */
+    private void consumeInBatches() {
+        try (JMSContext context = connectionFactory.createContext(Session.SESSION_TRANSACTED)) {
+            JMSConsumer consumer = context.createConsumer(context.createQueue("statusUpdateQueue"));
+            while (true) {
+                Message message = consumer.receive();
+                if (message == null) return;
+                final List<Message> batch = new ArrayList<>(batchSize);
+                batch.add(message);
+                final long deadline = System.currentTimeMillis() + batchTimeout;
+                while (batch.size() < batchSize) {
+                    final long remaining = deadline - System.currentTimeMillis();
+                    final Message next = remaining > 0 ? consumer.receive(remaining) : consumer.receiveNoWait();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                applyBatch(context, batch);
+            }
+        }
+    }
+
+    private void applyBatch(JMSContext context, List<Message> batch) {
+        final List<Supplier<Runnable>> updates = new ArrayList<>(batch.size());
+        for (Message message : batch) {
+            try {
+                final String lastUpdate = message.getBody(String.class);
+                LOG.debugf("Last status update from executor = %s", lastUpdate);
+                final WindupExecution windupExecution = WindupExecutionJSONUtil.readJSON(lastUpdate);
+                windupBroadcasterResource.broadcastMessage(lastUpdate);
+                final String id = windupExecution.getState() == ExecutionState.COMPLETED ? Long.toString(message.getLongProperty(MESSAGE_PROPERTY_PROJECT_ID)) : null;
+                final String executionId = windupExecution.getState() == ExecutionState.COMPLETED ? Long.toString(message.getLongProperty(MESSAGE_PROPERTY_EXECUTION_ID)) : null;
+                updates.add(() -> applyStatusUpdate(lastUpdate, windupExecution, id, executionId));
+            } catch (Exception e) {
+                LOG.errorf(e, "Failed to read a status update, it's discarded");
+            }
+        }
+        final Runnable commit = () -> graphService.getCentralGraphTraversalSource().tx().commit();
+        final Runnable rollback = () -> {
+            if (graphService.getCentralGraphTraversalSource().tx().isOpen()) graphService.getCentralGraphTraversalSource().tx().rollback();
+        };
+        final List<Runnable> onCommitted = new ArrayList<>(updates.size());
+        try {
+            updates.forEach(update -> onCommitted.add(update.get()));
+            commit.run();
+            LOG.debugf("Applied a batch of %d status updates", updates.size());
+        } catch (Exception e) {
+            // a single failing update must not hold back the other ones
+            LOG.warnf(e, "Failed to apply a batch of %d status updates, applying them one by one", updates.size());
+            rollback.run();
+            onCommitted.clear();
+            onCommitted.addAll(applyOneByOne(updates, commit, rollback));
+        }
+        try {
+            context.commit();
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Failed to commit a batch of %d status updates, they will be redelivered and the terminal ones already applied skipped", batch.size());
+        }
+        // the graph changes have been committed anyway so, e.g., the merges have to be submitted
+        onCommitted.forEach(Runnable::run);
+    }
+
+    /**
+     * Applies the updates each one within its own transaction
+     * @return what has to be done for the updates whose transaction has been committed
+     */
+    static List<Runnable> applyOneByOne(List<Supplier<Runnable>> updates, Runnable commit, Runnable rollback) {
+        final List<Runnable> onCommitted = new ArrayList<>(updates.size());
+        for (Supplier<Runnable> update : updates) {
+            try {
+                final Runnable onUpdateCommitted = update.get();
+                commit.run();
+                onCommitted.add(onUpdateCommitted);
+            } catch (Exception e) {
+                LOG.errorf(e, "Failed to apply a status update, it's discarded");
+                rollback.run();
+            }
+        }
+        return onCommitted;
+    }
+
+    private static boolean isTerminal(ExecutionState state) {
+        return state == ExecutionState.COMPLETED || state == ExecutionState.FAILED || state == ExecutionState.CANCELLED;
+    }
+
+    /**
+     * Hands the latest progress update of each analysis to the status update executor.
+     * The updates are submitted, possibly waiting for room in the executor, without holding the lock
+     * so a terminal update can overtake them: the progress updates applied after it are skipped.
+     */
+    private void flushPendingUpdates() {
+        try {
+            final Map<Long, Runnable> updates;
+            synchronized (pendingUpdates) {
+                if (pendingUpdates.isEmpty()) return;
+                updates = new LinkedHashMap<>(pendingUpdates);
+                pendingUpdates.clear();
+            }
+            LOG.debugf("Flushing %d pending status updates", updates.size());
+            updates.forEach(statusUpdateExecutor::submit);
+        } catch (Exception e) {
+            // an exception would stop the scheduled flushes
+            LOG.errorf(e, "Failed to flush the pending status updates");
+        }
+    }
+
+    /**
+     * Runs on the status update executor's stripe of the analysis, with that thread's own transaction
+     */
+    private void applyStatusUpdateAndCommit(String lastUpdate, WindupExecution windupExecution, String id, String executionId) {
+        try {
+            final Runnable onCommitted = applyStatusUpdate(lastUpdate, windupExecution, id, executionId);
+            graphService.getCentralGraphTraversalSource().tx().commit();
+            onCommitted.run();
+        } finally {
+            if (graphService.getCentralGraphTraversalSource().tx().isOpen()) graphService.getCentralGraphTraversalSource().tx().rollback();
+        }
+    }
+
+    /**
+     * Applies the update within the current transaction
+     * @return what has to be done once the transaction has been committed
+     */
+    private Runnable applyStatusUpdate(String lastUpdate, WindupExecution windupExecution, String id, String executionId) {
+        WindupExecutionModel windupExecutionModel = graphService.findLatestWindupExecutionModelByWindupExecutionId(windupExecution.getId());
+        // once the execution has ended, the progress updates overtaken by the terminal one and the redelivered
+        // terminal update are skipped, e.g. a COMPLETED update applied twice would submit a second merge
+        final ExecutionState previousState = windupExecutionModel.getState();
+        if (previousState != null && isTerminal(previousState) && (!isTerminal(windupExecution.getState()) || windupExecution.getState() == previousState)) {
+            LOG.debugf("Skipping the %s update for the execution %d already %s", windupExecution.getState(), windupExecution.getId(), previousState);
+            return () -> {};
+        }
+        windupExecutionModel.setState(windupExecution.getState());
+        windupExecutionModel.setLastModified(windupExecution.getLastModified().getTimeInMillis());
+        windupExecutionModel.setCurrentTask(windupExecution.getCurrentTask());
+        windupExecutionModel.setWorkCompleted(windupExecution.getWorkCompleted());
+        windupExecutionModel.setWorkTotal(windupExecution.getTotalWork());
+        AnalysisModel analysisModel = graphService.findAnalysisModelByAnalysisId(windupExecution.getId());
+        analysisModel.setLastUpdate(lastUpdate);
+        switch (windupExecution.getState()) {
+            case COMPLETED:
+                LOG.infof("Executor analysis COMPLETED: %s", lastUpdate);
+                GraphService.setStatus(analysisModel, Status.MERGING);
+                final AnalysisCache.Entry mergingEntry = analysisCache.toEntry(analysisModel);
+                return () -> {
+                    analysisCache.put(mergingEntry);
+                    windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"MERGING\",\"currentTask\":\"Merging into central graph\",\"totalWork\":1,\"workCompleted\":0}", id));
+                    // the merge runs on the merge executor's threads so that the status updates keep on being applied
+                    // and, since the merge could complete the analysis at any time, the cache entry is written before it
+                    mergeExecutor.submit(id, () -> merge(windupExecution, id, executionId));
+                };
+            case QUEUED:
+                // the Windup executor pod never sends a status update with this state
+                break;
+            case STARTED:
+                windupExecutionModel.setTimeStarted(windupExecution.getTimeStarted().getTimeInMillis());
+                GraphService.setStatus(analysisModel, Status.STARTED);
+                break;
+            case FAILED:
+            case CANCELLED:
+                LOG.infof("Received 'CANCELLED' for analysis %s", windupExecution.getId());
+                windupExecutionModel.setTimeFinished(windupExecution.getLastModified().getTimeInMillis());
+                final String outputPath = windupExecutionModel.getOutputPath();
+                final AnalysisCache.Entry endedEntry = analysisCache.toEntry(analysisModel);
+                return () -> {
+                    analysisCache.put(endedEntry);
+                    // not before the commit, since a rolled back update would leave the execution without its output
+                    WindupUtil.deletePath(outputPath);
+                };
+            default:
+                break;
+        }
+        final AnalysisCache.Entry entry = analysisCache.toEntry(analysisModel);
+        return () -> analysisCache.put(entry);
+    }
+
+    private void merge(WindupExecution windupExecution, String id, String executionId) {
+        try {
+            graphService.updateCentralJanusGraph(windupExecution.getOutputPath(), id, executionId);
+            // the models are retrieved again since the ones found by the consumer belong to its own thread's transaction
+            final WindupExecutionModel windupExecutionModel = graphService.findLatestWindupExecutionModelByWindupExecutionId(windupExecution.getId());
+            windupExecutionModel.setTimeFinished(windupExecution.getTimeCompleted().getTimeInMillis());
+            final AnalysisModel analysisModel = graphService.findAnalysisModelByAnalysisId(windupExecution.getId());
+            GraphService.setStatus(analysisModel, Status.COMPLETED);
+            final AnalysisCache.Entry entry = analysisCache.toEntry(analysisModel);
+            graphService.getCentralGraphTraversalSource().tx().commit();
+            analysisCache.put(entry);
+            portfolioService.invalidate();
+            windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"MERGED\",\"currentTask\":\"Merged into central graph\",\"totalWork\":1,\"workCompleted\":1}", id));
+            issuesSnapshotService.writeSnapshot(id, windupExecutionModel);
+            // TODO delete the application file now
+            LOG.debug("COMPLETED updateCentralJanusGraph");
+        } catch (RuntimeException e) {
+            onMergeFailed(windupExecution, id);
+            // rethrown for the merge executor to count the merge as failed
+            throw e;
+        } finally {
+            if (graphService.getCentralGraphTraversalSource().tx().isOpen()) graphService.getCentralGraphTraversalSource().tx().rollback();
+        }
+    }
+
+    /**
+     * Moves the analysis out of the {@link Status#MERGING} status, unless it has been deleted or re-run in the meantime,
+     * so that it doesn't look like the merge is still in progress
+     */
+    private void onMergeFailed(WindupExecution windupExecution, String id) {
+        try {
+            graphService.getCentralGraphTraversalSource().tx().rollback();
+            final AnalysisModel analysisModel = graphService.findAnalysisModelByAnalysisId(windupExecution.getId());
+            if (analysisModel.getStatus() != Status.MERGING) return;
+            GraphService.setStatus(analysisModel, Status.FAILED);
+            final AnalysisCache.Entry entry = analysisCache.toEntry(analysisModel);
+            graphService.getCentralGraphTraversalSource().tx().commit();
+            analysisCache.put(entry);
+            portfolioService.invalidate();
+            windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"FAILED\",\"currentTask\":\"Merge into central graph failed\",\"totalWork\":1,\"workCompleted\":1}", id));
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Failed to set the FAILED status for Analysis ID %s", id);
+        } finally {
+            if (graphService.getCentralGraphTraversalSource().tx().isOpen()) graphService.getCentralGraphTraversalSource().tx().rollback();
         }
     }
 }
@@ -16,6 +16,7 @@
 package io.tackle.windup.rest.mapper;
 
 import io.tackle.windup.rest.dto.ExecutionDTO;
+import io.tackle.windup.rest.dto.ExecutionSummaryDTO;
 import io.tackle.windup.rest.graph.model.WindupExecutionModel;
 import org.jboss.windup.graph.model.TechnologyReferenceModel;
 import org.jboss.windup.rules.apps.java.model.PackageModel;
@@ -42,6 +43,12 @@ public interface WindupExecutionMapper {
     })
     ExecutionDTO toExecutionDTO(WindupExecutionModel windupExecutionModel);
 
+    @Mappings({
+            @Mapping(source = "windupExecutionId", target = "executionId"),
+            @Mapping(source = "summary", target = ".")
+    })
+    ExecutionSummaryDTO toExecutionSummaryDTO(WindupExecutionModel windupExecutionModel);
+
     default Map<String, Long> mapNumberIssuesPerCategory(Map<Object, Long> numberIssuesPerCategories) {
         return Optional.ofNullable(numberIssuesPerCategories)
                 .map(numberIssuesPerCategory ->
@@ -15,79 +15,73 @@
  */
 package io.tackle.windup.rest.resources;
 
-import com.syncleus.ferma.DelegatingFramedGraph;
-import com.syncleus.ferma.FramedGraph;
-import com.syncleus.ferma.ReflectionCache;
-import com.syncleus.ferma.framefactories.annotation.MethodHandler;
-import com.syncleus.ferma.typeresolvers.PolymorphicTypeResolver;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.tackle.windup.rest.dto.AnalysisDTO;
 import io.tackle.windup.rest.dto.AnalysisStatusDTO;
+import io.tackle.windup.rest.graph.AnalysisCache;
+import io.tackle.windup.rest.graph.GraphMarshaller;
+import io.tackle.windup.rest.graph.GraphMarshallingContext;
 import io.tackle.windup.rest.graph.GraphService;
+import io.tackle.windup.rest.graph.PortfolioService;
 import io.tackle.windup.rest.graph.model.AnalysisModel;
 import io.tackle.windup.rest.graph.model.AnalysisModel.Status;
 import io.tackle.windup.rest.graph.model.WindupExecutionModel;
 import io.tackle.windup.rest.jms.WindupExecutionProducer;
-import io.tackle.windup.rest.mapper.AnalysisMapper;
 import io.tackle.windup.rest.mapper.WindupExecutionMapper;
 import io.tackle.windup.rest.util.WindupUtil;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.tinkerpop.gremlin.process.traversal.Order;
-import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
-import org.apache.tinkerpop.gremlin.structure.Direction;
-import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
-import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.janusgraph.core.JanusGraph;
+import org.janusgraph.core.JanusGraphIndexQuery;
+import org.janusgraph.core.JanusGraphVertex;
 import org.jboss.logging.Logger;
 import org.jboss.resteasy.annotations.providers.multipart.MultipartForm;
-import org.jboss.windup.graph.AnnotationFrameFactory;
-import org.jboss.windup.graph.MapInAdjacentPropertiesHandler;
-import org.jboss.windup.graph.MapInAdjacentVerticesHandler;
-import org.jboss.windup.graph.MapInPropertiesHandler;
-import org.jboss.windup.graph.SetInPropertiesHandler;
-import org.jboss.windup.graph.WindupAdjacencyMethodHandler;
-import org.jboss.windup.graph.WindupApiAnnotationFrameFactory;
-import org.jboss.windup.graph.WindupPropertyMethodHandler;
-import org.jboss.windup.graph.frames.FramedVertexIterable;
-import org.jboss.windup.graph.javahandler.JavaHandlerHandler;
-import org.jboss.windup.graph.model.WindupFrame;
-import org.jboss.windup.graph.model.WindupVertexFrame;
-import org.jboss.windup.reporting.model.InlineHintModel;
-import org.jboss.windup.web.addons.websupport.rest.graph.GraphResource;
+import org.jboss.resteasy.plugins.providers.multipart.InputPart;
+import org.jboss.resteasy.plugins.providers.multipart.MultipartFormDataInput;
+import org.jboss.windup.web.services.model.ExecutionState;
 import org.jboss.windup.web.services.model.WindupExecution;
 
 import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
-import static io.tackle.windup.rest.graph.model.WindupExecutionModel.TIME_QUEUED;
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
-
 @Path("/windup")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
@@ -96,6 +90,21 @@ public class WindupResource {
     private static final String DEFAULT_GRAPH_CONFIGURATION_FILE_NAME = "graphConfiguration.properties";
     private static final String DEFAULT_CENTRAL_GRAPH_CONFIGURATION_FILE_NAME = "centralGraphConfiguration.properties";
     public static final String PATH_PARAM_ANALYSIS_ID = "analysisId";
+    public static final String QUERY_PARAM_LIMIT = "limit";
+    public static final String QUERY_PARAM_CURSOR = "cursor";
+    public static final String QUERY_PARAM_OFFSET = "offset";
+    public static final String QUERY_PARAM_STATUS = "status";
+    public static final String QUERY_PARAM_CATEGORY = "category";
+    public static final String QUERY_PARAM_RULE_ID = "ruleId";
+    public static final String QUERY_PARAM_FILE = "file";
+    public static final String QUERY_PARAM_EFFORT = "effort";
+    public static final String QUERY_PARAM_TEXT = "q";
+    public static final String QUERY_PARAM_FIELDS = "fields";
+    public static final String QUERY_PARAM_DEPTH = "depth";
+    public static final String FORM_PARAM_APPLICATION = "application";
+    public static final String HEADER_TOTAL_COUNT = "Total-Count";
+    public static final String HEADER_NEXT_CURSOR = "Next-Cursor";
+    private static final char CURSOR_SEPARATOR = ':';
 
     @ConfigProperty(defaultValue = DEFAULT_GRAPH_CONFIGURATION_FILE_NAME, name = "io.tackle.windup.rest.graph.properties.file.path")
     File graphProperties;
@@ -106,49 +115,189 @@ public class WindupResource {
     @ConfigProperty(name = "io.tackle.windup.rest.shared-folder.path")
     String sharedFolderPath;
 
+    @ConfigProperty(defaultValue = "500", name = "io.tackle.windup.rest.issues.page-size")
+    int issuesPageSize;
+
+    @ConfigProperty(defaultValue = "3", name = "io.tackle.windup.rest.marshalling.max-depth")
+    int maxDepth;
+
+    @ConfigProperty(defaultValue = "100", name = "io.tackle.windup.rest.issues.search.limit")
+    int issuesSearchLimit;
+
+    @ConfigProperty(defaultValue = "1000", name = "io.tackle.windup.rest.analysis.status.batch-size")
+    int statusBatchSize;
+
+    @ConfigProperty(defaultValue = "5000", name = "io.tackle.windup.rest.analysis.bulk.max-size")
+    int bulkMaxSize;
+
+    private final AtomicLong lastAnalysisId = new AtomicLong();
+
+    @Inject
+    ObjectMapper objectMapper;
+
     @Inject
     GraphService graphService;
 
     @Inject
-    WindupExecutionProducer windupExecutionProducer;
+    GraphMarshaller graphMarshaller;
 
     @Inject
-    WindupBroadcasterResource windupBroadcasterResource;
+    AnalysisCache analysisCache;
 
     @Inject
-    AnalysisMapper analysisMapper;
+    PortfolioService portfolioService;
+
+    @Inject
+    WindupExecutionProducer windupExecutionProducer;
+
+    @Inject
+    WindupBroadcasterResource windupBroadcasterResource;
 
     @Inject
     WindupExecutionMapper windupExecutionMapper;
 
     @GET
     @Path("/issue")
-    public Response issues(@QueryParam(PATH_PARAM_ANALYSIS_ID) String analysisId) {
-        return analysisIssues(analysisId);
+    public Response issues(@QueryParam(PATH_PARAM_ANALYSIS_ID) String analysisId,
+                           @QueryParam(QUERY_PARAM_LIMIT) Integer limit,
+                           @QueryParam(QUERY_PARAM_CURSOR) String cursor,
+                           @QueryParam(QUERY_PARAM_CATEGORY) String category,
+                           @QueryParam(QUERY_PARAM_RULE_ID) String ruleId,
+                           @QueryParam(QUERY_PARAM_FILE) String file,
+                           @QueryParam(QUERY_PARAM_EFFORT) Integer effort,
+                           @QueryParam(QUERY_PARAM_FIELDS) String fields,
+                           @QueryParam(QUERY_PARAM_DEPTH) Integer depth) {
+        return analysisIssues(analysisId, limit, cursor, category, ruleId, file, effort, fields, depth);
     }
 
+    /**
+     * Without the {@code limit} and {@code cursor} query parameters, all the issues are returned.
+     * Otherwise, at most {@code limit} issues (default {@code io.tackle.windup.rest.issues.page-size}) are returned
+     * and, if there are more, the {@code Next-Cursor} response header contains the {@code cursor} to be provided
+     * for retrieving the next ones: it's rejected with {@code 410 Gone} once the issues have changed.
+     * Either way, the issues are written to the response while they're retrieved from the graph.
+     * The {@code category}, {@code ruleId}, {@code file} and {@code effort} query parameters filter the issues
+     * within the index query.
+     * The {@code fields} query parameter, a comma separated list of property keys and edge labels, restricts
+     * what's serialized for each vertex while the {@code depth} query parameter (default 1) sets how many levels
+     * of vertices are serialized.
+     */
     @GET
     @Path("/analysis/{" + PATH_PARAM_ANALYSIS_ID + "}/issues")
-    public Response analysisIssues(@PathParam(PATH_PARAM_ANALYSIS_ID) String analysisId) {
-        final ReflectionCache reflections = new ReflectionCache();
-        final AnnotationFrameFactory frameFactory = new WindupApiAnnotationFrameFactory(Thread.currentThread().getContextClassLoader(), reflections, getMethodHandlers());
+    public Response analysisIssues(@PathParam(PATH_PARAM_ANALYSIS_ID) String analysisId,
+                                   @QueryParam(QUERY_PARAM_LIMIT) Integer limit,
+                                   @QueryParam(QUERY_PARAM_CURSOR) String cursor,
+                                   @QueryParam(QUERY_PARAM_CATEGORY) String category,
+                                   @QueryParam(QUERY_PARAM_RULE_ID) String ruleId,
+                                   @QueryParam(QUERY_PARAM_FILE) String file,
+                                   @QueryParam(QUERY_PARAM_EFFORT) Integer effort,
+                                   @QueryParam(QUERY_PARAM_FIELDS) String fields,
+                                   @QueryParam(QUERY_PARAM_DEPTH) Integer depth) {
+        final GraphMarshallingContext ctx = createGraphMarshallingContext(depth, fields);
         try {
             JanusGraph centralGraph = graphService.getCentralJanusGraph();
             // https://github.com/JanusGraph/janusgraph/issues/500#issuecomment-327868102
             centralGraph.tx().rollback();
-            FramedGraph framedGraph = new DelegatingFramedGraph<>(centralGraph, frameFactory, new PolymorphicTypeResolver(reflections));
             LOG.info("...running the query...");
-            final GraphTraversal<Vertex, Vertex> hints = graphService.getCentralGraphTraversalByType(InlineHintModel.class);
-            if (StringUtils.isNotBlank(analysisId)) hints.has(PATH_PARAM_ANALYSIS_ID, analysisId);
-            final List<Vertex> issues = hints.toList();
-            LOG.infof("Found %d hints for application ID %s", issues.size(), analysisId);
-            return Response.ok(frameIterableToResult(1L, new FramedVertexIterable<>(framedGraph, issues, InlineHintModel.class), 1)).build();
+            final Map<String, Long> currentGenerations = graphService.findCurrentGenerations(StringUtils.isNotBlank(analysisId) ? analysisId : null);
+            if (limit == null && cursor == null) {
+                return Response.ok(streamIssues(graphService.getIssuesGraphTraversal(currentGenerations.keySet(), null, category, ruleId, file, effort), analysisId, ctx)).build();
+            }
+
+            final int pageSize = limit != null ? limit : issuesPageSize;
+            if (pageSize <= 0) throw new BadRequestException(String.format("'%s' must be greater than 0", QUERY_PARAM_LIMIT));
+            // the cursor is bound to the version of the issues it has been created for
+            final String version = GraphService.getIssuesVersion(currentGenerations);
+            // the cursor holds the ordinal of the last issue returned so that each page starts right after it
+            Long afterOrdinal = null;
+            if (cursor != null) {
+                final String decodedCursor = decodeCursor(cursor);
+                final int separator = decodedCursor.lastIndexOf(CURSOR_SEPARATOR);
+                if (!version.equals(decodedCursor.substring(0, separator))) return Response.status(Response.Status.GONE).build();
+                afterOrdinal = Long.parseLong(decodedCursor.substring(separator + 1));
+            }
+            final List<Vertex> page = graphService.getIssuesGraphTraversal(currentGenerations.keySet(), afterOrdinal, category, ruleId, file, effort)
+                    .limit(pageSize + 1)
+                    .toList();
+            final List<Vertex> issues = page.subList(0, Math.min(page.size(), pageSize));
+            final Response.ResponseBuilder response = Response.ok(streamIssues(issues.iterator(), analysisId, ctx));
+            if (page.size() > pageSize) response.header(HEADER_NEXT_CURSOR, encodeCursor(version + CURSOR_SEPARATOR + issues.get(pageSize - 1).value(GraphService.ISSUE_ORDINAL)));
+            return response.build();
+        } catch (BadRequestException e) {
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
         }
         return Response.serverError().build();
     }
 
+    /**
+     * Full-text searches the {@code q} text in the title, message and rule ID of the issues of the analysis
+     * provided or, if none, of all the analyses.
+     * At most {@code limit} issues (default {@code io.tackle.windup.rest.issues.search.limit}) are returned
+     * sorted by their relevance score.
+     * The {@code fields} and {@code depth} query parameters work as for the issues endpoint.
+     */
+    @GET
+    @Path("/issue/search")
+    public Response searchIssues(@QueryParam(QUERY_PARAM_TEXT) String text,
+                                 @QueryParam(PATH_PARAM_ANALYSIS_ID) String analysisId,
+                                 @QueryParam(QUERY_PARAM_LIMIT) Integer limit,
+                                 @QueryParam(QUERY_PARAM_FIELDS) String fields,
+                                 @QueryParam(QUERY_PARAM_DEPTH) Integer depth) {
+        final GraphMarshallingContext ctx = createGraphMarshallingContext(depth, fields);
+        if (StringUtils.isBlank(text)) throw new BadRequestException(String.format("'%s' must not be blank", QUERY_PARAM_TEXT));
+        if (limit != null && limit <= 0) throw new BadRequestException(String.format("'%s' must be greater than 0", QUERY_PARAM_LIMIT));
+        try {
+            final JanusGraph centralGraph = graphService.getCentralJanusGraph();
+            // https://github.com/JanusGraph/janusgraph/issues/500#issuecomment-327868102
+            centralGraph.tx().rollback();
+            LOG.info("...running the searchIssues query...");
+            final List<Map<String, Object>> issues = new ArrayList<>();
+            for (JanusGraphIndexQuery.Result<JanusGraphVertex> result : graphService.searchIssues(text, StringUtils.trimToNull(analysisId), limit != null ? limit : issuesSearchLimit)) {
+                final Map<String, Object> issue = new LinkedHashMap<>();
+                issue.put(PATH_PARAM_ANALYSIS_ID, result.getElement().<String>property(PATH_PARAM_ANALYSIS_ID).orElse(null));
+                issue.put("score", result.getScore());
+                issue.put("issue", graphMarshaller.convertToMap(ctx, result.getElement()));
+                issues.add(issue);
+            }
+            LOG.infof("Found %d issues searching '%s'", issues.size(), text);
+            return Response.ok(issues).build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw e;
+        } finally {
+            graphService.getCentralJanusGraph().tx().rollback();
+        }
+    }
+
+    /**
+     * Counts the issues of the analysis per category and, for the most frequent ones, per rule and per file.
+     * The issues can be filtered with the same query parameters of the issues endpoint.
+     */
+    @GET
+    @Path("/analysis/{" + PATH_PARAM_ANALYSIS_ID + "}/issues/facets")
+    public Response analysisIssuesFacets(@PathParam(PATH_PARAM_ANALYSIS_ID) String analysisId,
+                                         @QueryParam(QUERY_PARAM_CATEGORY) String category,
+                                         @QueryParam(QUERY_PARAM_RULE_ID) String ruleId,
+                                         @QueryParam(QUERY_PARAM_FILE) String file,
+                                         @QueryParam(QUERY_PARAM_EFFORT) Integer effort) {
+        try {
+            final JanusGraph centralGraph = graphService.getCentralJanusGraph();
+            // https://github.com/JanusGraph/janusgraph/issues/500#issuecomment-327868102
+            centralGraph.tx().rollback();
+            LOG.info("...running the analysisIssuesFacets query...");
+            return Response.ok(graphService.getIssuesFacets(graphService.getIssuesGraphTraversal(
+                    graphService.findCurrentGenerations(analysisId).keySet(), null, category, ruleId, file, effort)))
+                    .build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw e;
+        } finally {
+            graphService.getCentralJanusGraph().tx().rollback();
+        }
+    }
+
     @POST
     @Path("/analysis/")
     @Consumes({ MediaType.MULTIPART_FORM_DATA })
@@ -156,11 +305,11 @@ public class WindupResource {
     public Response runAnalysis(@MultipartForm AnalysisMultipartBody analysisRequest) {
         try {
             // TODO: make this ID working when multi instances are deployed
-            //  (and current time allows for conflicts)
-            long analysisId = System.currentTimeMillis();
+            long analysisId = nextAnalysisId();
             AnalysisModel analysisModel = graphService.create(AnalysisModel.class);
             analysisModel.setAnalysisId(analysisId);
             analysisModel.setCreated(System.currentTimeMillis());
+            analysisModel.setLatestTimeQueued(analysisModel.getCreated());
             graphService.getCentralGraphTraversalSource().tx().commit();
             return runAnalysis(analysisModel, analysisRequest);
         } catch (Exception e) {
@@ -169,6 +318,87 @@ public class WindupResource {
         return Response.serverError().build();
     }
 
+    /**
+     * Runs an analysis for each {@code application} part, all of them with the same {@code sources}, {@code targets},
+     * {@code packages} and {@code sourceMode} parts.
+     * The analyses and their executions are created with a single transaction and, once committed,
+     * their execution requests are sent with a single JMS transaction.
+     */
+    @POST
+    @Path("/analysis/bulk")
+    @Consumes({ MediaType.MULTIPART_FORM_DATA })
+    @Produces({ MediaType.APPLICATION_JSON })
+    public Response runAnalyses(MultipartFormDataInput input) {
+        final Map<String, List<InputPart>> parts = input.getFormDataMap();
+        final List<InputPart> applications = parts.getOrDefault(FORM_PARAM_APPLICATION, List.of());
+        if (applications.isEmpty()) throw new BadRequestException(String.format("At least one '%s' part is required", FORM_PARAM_APPLICATION));
+        if (applications.size() > bulkMaxSize) throw new BadRequestException(String.format("At most %d '%s' parts are allowed", bulkMaxSize, FORM_PARAM_APPLICATION));
+        final Map<Long, String> applicationFilePaths = new LinkedHashMap<>();
+        boolean stored = false;
+        try {
+            final String targets = getFormValue(parts, "targets", null);
+            if (StringUtils.isBlank(targets)) throw new BadRequestException("'targets' part is required");
+            final String sources = getFormValue(parts, "sources", "");
+            final String packages = getFormValue(parts, "packages", "");
+            final Boolean sourceMode = Boolean.valueOf(getFormValue(parts, "sourceMode", "false"));
+
+            final Map<Long, String> applicationFileNames = new HashMap<>();
+            for (InputPart application : applications) {
+                final long analysisId = nextAnalysisId();
+                final String applicationFileName = StringUtils.defaultIfBlank(getFileName(application), String.format("application-%d", analysisId));
+                // the analysis ID avoids the applications with the same file name overwriting each other
+                final java.nio.file.Path applicationFile = Paths.get(sharedFolderPath, String.format("%d-%s", analysisId, applicationFileName));
+                Files.createDirectories(applicationFile.getParent());
+                try (InputStream applicationStream = application.getBody(InputStream.class, null)) {
+                    Files.copy(applicationStream, applicationFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                applicationFilePaths.put(analysisId, applicationFile.toAbsolutePath().toString());
+                applicationFileNames.put(analysisId, applicationFileName);
+            }
+            LOG.debugf("Copied %d input files to %s", applicationFilePaths.size(), sharedFolderPath);
+
+            // the executions are stored before their requests are sent so that the status updates,
+            // which could arrive right after the sending, always find them
+            final List<WindupExecution> windupExecutions = windupExecutionProducer.createExecutionRequests(applicationFilePaths,
+                    Paths.get(sharedFolderPath).toAbsolutePath().toString(), sources, targets, packages, sourceMode);
+            final List<AnalysisCache.Entry> entries = new ArrayList<>(applicationFilePaths.size());
+            final List<Map<String, Object>> analyses = new ArrayList<>(applicationFilePaths.size());
+            for (WindupExecution windupExecution : windupExecutions) {
+                final AnalysisModel analysisModel = graphService.create(AnalysisModel.class);
+                analysisModel.setAnalysisId(windupExecution.getId());
+                analysisModel.setCreated(System.currentTimeMillis());
+                GraphService.setStatus(analysisModel, Status.INIT);
+                final WindupExecutionModel windupExecutionModel = graphService.createFromWindupExecution(windupExecution);
+                windupExecutionModel.setApplicationFileName(applicationFileNames.get(analysisModel.getAnalysisId()));
+                analysisModel.addWindupExecution(windupExecutionModel);
+                analysisModel.setLatestTimeQueued(windupExecutionModel.getTimeQueued());
+                entries.add(analysisCache.toEntry(analysisModel));
+                final Map<String, Object> analysis = new LinkedHashMap<>();
+                analysis.put("id", analysisModel.getAnalysisId());
+                analysis.put("applicationFileName", windupExecutionModel.getApplicationFileName());
+                analysis.put("location", String.format("/windup/analysis/%d", analysisModel.getAnalysisId()));
+                analyses.add(analysis);
+            }
+            graphService.getCentralGraphTraversalSource().tx().commit();
+            entries.forEach(analysisCache::put);
+            stored = true;
+
+            windupExecutionProducer.triggerAnalyses(windupExecutions);
+            windupExecutions.forEach(windupExecution -> windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"INIT\",\"currentTask\":\"Analysis waiting to be executed\",\"totalWork\":2,\"workCompleted\":2}", windupExecution.getId())));
+            LOG.infof("Submitted %d analyses", analyses.size());
+            return Response.status(Response.Status.CREATED).entity(analyses).build();
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            e.printStackTrace();
+            if (graphService.getCentralGraphTraversalSource().tx().isOpen()) graphService.getCentralGraphTraversalSource().tx().rollback();
+            // the requests have not been sent: the analyses stored are cancelled
+            if (stored) cancelAnalyses(applicationFilePaths.keySet());
+            applicationFilePaths.values().forEach(WindupUtil::deletePath);
+        }
+        return Response.serverError().build();
+    }
+
     @PUT
     @Path("/analysis/{" + PATH_PARAM_ANALYSIS_ID + "}/")
     @Consumes({ MediaType.MULTIPART_FORM_DATA })
@@ -193,8 +423,11 @@ public class WindupResource {
             final Status nextStatus = analysisModel.getStatus() == Status.COMPLETED ? Status.DELETED : Status.CANCELLED;
             final String outputPath = graphService.findLatestWindupExecutionOutputPathByAnalysisId(analysisId);
             graphService.deleteAnalysisGraphFromCentralGraph(analysisId);
-            analysisModel.setStatus(nextStatus);
+            GraphService.setStatus(analysisModel, nextStatus);
+            final AnalysisCache.Entry entry = analysisCache.toEntry(analysisModel);
             graphService.getCentralGraphTraversalSource().tx().commit();
+            analysisCache.put(entry);
+            portfolioService.invalidate();
             switch (nextStatus) {
                 case DELETED:
                     // if the nextStatus is deleted then it means it was completed and hence the whole output
@@ -218,22 +451,47 @@ public class WindupResource {
         return Response.serverError().build();
     }
 
+    /**
+     * Returns the analyses, with the provided {@code status} if any, sorted by the time their latest execution
+     * has been queued, starting from the {@code offset} one and, if provided, at most {@code limit} of them.
+     * The {@code Total-Count} response header contains the number of the analyses available.
+     */
     @GET
     @Path("/analysis/")
-    public Response retrieveAnalyses() {
+    public Response retrieveAnalyses(@QueryParam(QUERY_PARAM_LIMIT) Integer limit,
+                                     @QueryParam(QUERY_PARAM_OFFSET) Integer offset,
+                                     @QueryParam(QUERY_PARAM_STATUS) String status) {
         try {
+            if (limit != null && limit <= 0) throw new BadRequestException(String.format("'%s' must be greater than 0", QUERY_PARAM_LIMIT));
+            if (offset != null && offset < 0) throw new BadRequestException(String.format("'%s' must not be negative", QUERY_PARAM_OFFSET));
+            final Status analysisStatus;
+            try {
+                analysisStatus = status != null ? Status.valueOf(status) : null;
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException(String.format("Invalid '%s'", QUERY_PARAM_STATUS));
+            }
             final JanusGraph centralGraph = graphService.getCentralJanusGraph();
             // https://github.com/JanusGraph/janusgraph/issues/500#issuecomment-327868102
             centralGraph.tx().rollback();
             LOG.info("...running the retrieveAnalyses \"query\"...");
-            final List<Vertex> analyses = graphService.getCentralGraphTraversalByType(AnalysisModel.class)
+            final long start = offset != null ? offset : 0;
+            final List<Vertex> analyses = graphService.getAnalysesGraphTraversal(analysisStatus)
                     .order()
-                    .by(out(AnalysisModel.OWNS).values(TIME_QUEUED), Order.desc)
+                    .by(AnalysisModel.LATEST_TIME_QUEUED, Order.desc)
+                    .range(start, limit != null ? start + limit : -1)
                     .toList();
-            LOG.infof("Found %d Analysis", analyses.size());
-            final List<Map<String, Object>> result = frameIterableToResult(1L, new FramedVertexIterable<>(graphService.getCentralFramedGraph(), analyses, AnalysisModel.class), 4);
-            LOG.debugf("Framed %d Analysis", result.size());
-            return Response.ok(result).build();
+            final long totalCount = graphService.getAnalysesGraphTraversal(analysisStatus).count().next();
+            LOG.infof("Found %d Analysis out of %d", analyses.size(), totalCount);
+            final List<AnalysisDTO> result = analyses.stream()
+                    .map(analysis -> graphService.getCentralFramedGraph().frameElement(analysis, AnalysisModel.class))
+                    .map(analysisModel -> {
+                        final AnalysisDTO analysis = analysisCache.getAnalysis(analysisModel.getAnalysisId());
+                        return analysis != null ? analysis : analysisCache.load(analysisModel).analysis;
+                    })
+                    .collect(Collectors.toList());
+            return Response.ok(result).header(HEADER_TOTAL_COUNT, totalCount).build();
+        } catch (BadRequestException e) {
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -244,12 +502,46 @@ public class WindupResource {
     @Path("/analysis/{" + PATH_PARAM_ANALYSIS_ID + "}/")
     public Response retrieveAnalysis(@PathParam(PATH_PARAM_ANALYSIS_ID) String analysisId) {
         try {
+            final AnalysisDTO analysis = analysisCache.getAnalysis(Long.parseLong(analysisId));
+            if (analysis != null) return Response.ok(analysis).build();
             final JanusGraph centralGraph = graphService.getCentralJanusGraph();
             // https://github.com/JanusGraph/janusgraph/issues/500#issuecomment-327868102
             centralGraph.tx().rollback();
             LOG.info("...running the retrieveAnalysis \"query\"...");
             final AnalysisModel analysisModel = graphService.findAnalysisModelByAnalysisId(Long.parseLong(analysisId));
-            return Response.ok(analysisMapper.toAnalysisDTO(analysisModel)).build();
+            return Response.ok(analysisCache.load(analysisModel).analysis).build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns, in one request, the status of the analyses whose IDs are provided, keyed by analysis ID:
+     * the analyses not found are not included.
+     */
+    @POST
+    @Path("/analysis/status")
+    public Response retrieveAnalysesStatus(List<Long> analysisIds) {
+        if (analysisIds == null || analysisIds.isEmpty() || analysisIds.contains(null)) throw new BadRequestException("The analysis IDs are missing");
+        if (analysisIds.size() > statusBatchSize) throw new BadRequestException(String.format("No more than %d analysis IDs are allowed", statusBatchSize));
+        try {
+            final Map<Long, AnalysisStatusDTO> statuses = new LinkedHashMap<>(analysisIds.size());
+            final List<Long> missingAnalysisIds = new ArrayList<>();
+            for (Long analysisId : analysisIds) {
+                final AnalysisStatusDTO status = analysisCache.getStatus(analysisId);
+                if (status != null) statuses.put(analysisId, status);
+                else missingAnalysisIds.add(analysisId);
+            }
+            if (!missingAnalysisIds.isEmpty()) {
+                final JanusGraph centralGraph = graphService.getCentralJanusGraph();
+                // https://github.com/JanusGraph/janusgraph/issues/500#issuecomment-327868102
+                centralGraph.tx().rollback();
+                LOG.infof("...running the retrieveAnalysesStatus \"query\" for %d analyses...", missingAnalysisIds.size());
+                graphService.findAnalysisModelsByAnalysisIds(missingAnalysisIds)
+                        .forEach(analysisModel -> statuses.put(analysisModel.getAnalysisId(), analysisCache.load(analysisModel).status));
+            }
+            return Response.ok(statuses).build();
         } catch (Exception e) {
             e.printStackTrace();
             throw e;
@@ -260,12 +552,14 @@ public class WindupResource {
     @Path("/analysis/{" + PATH_PARAM_ANALYSIS_ID + "}/status/")
     public Response retrieveAnalysisStatus(@PathParam(PATH_PARAM_ANALYSIS_ID) String analysisId) {
         try {
+            final AnalysisStatusDTO status = analysisCache.getStatus(Long.parseLong(analysisId));
+            if (status != null) return Response.ok(status).build();
             final JanusGraph centralGraph = graphService.getCentralJanusGraph();
             // https://github.com/JanusGraph/janusgraph/issues/500#issuecomment-327868102
             centralGraph.tx().rollback();
             LOG.info("...running the retrieveAnalysisStatus \"query\"...");
             final AnalysisModel analysisModel = graphService.findAnalysisModelByAnalysisId(Long.parseLong(analysisId));
-            return Response.ok(AnalysisStatusDTO.withAnalysisModel(analysisModel)).build();
+            return Response.ok(analysisCache.load(analysisModel).status).build();
         } catch (Exception e) {
             e.printStackTrace();
             throw e;
@@ -292,6 +586,138 @@ public class WindupResource {
         }
     }
 
+    /**
+     * Rolls up the numbers of all the completed analyses: the result is computed in parallel
+     * and then kept until an analysis is merged or deleted.
+     */
+    @GET
+    @Path("/portfolio/summary")
+    public Response retrievePortfolioSummary() throws ExecutionException, InterruptedException {
+        try {
+            return Response.ok(portfolioService.getPortfolioSummary()).build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw e;
+        }
+    }
+
+    @GET
+    @Path("/analysis/{" + PATH_PARAM_ANALYSIS_ID + "}/summary/")
+    public Response retrieveAnalysisSummary(@PathParam(PATH_PARAM_ANALYSIS_ID) String analysisId) {
+        try {
+            final JanusGraph centralGraph = graphService.getCentralJanusGraph();
+            // https://github.com/JanusGraph/janusgraph/issues/500#issuecomment-327868102
+            centralGraph.tx().rollback();
+            LOG.info("...running the retrieveAnalysisSummary \"query\"...");
+            final AnalysisModel analysisModel = graphService.findAnalysisModelByAnalysisId(Long.parseLong(analysisId));
+            // a deleted analysis, even if cancelled or failed while being deleted, has no issues anymore
+            if (analysisModel.getStatus() == Status.DELETED || GraphService.isTombstone(analysisModel.getGeneration())) throw new NotFoundException();
+            // the latest execution with a summary, i.e. the one whose issues are the current ones
+            return Response.ok(
+                            graphService.findWindupExecutionModelByAnalysisId(Long.parseLong(analysisId))
+                                    .stream()
+                                    .filter(windupExecutionModel -> windupExecutionModel.getSummary() != null)
+                                    .findFirst()
+                                    .map(windupExecutionModel -> windupExecutionMapper.toExecutionSummaryDTO(windupExecutionModel))
+                                    .orElseThrow(NotFoundException::new))
+                    .build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw e;
+        }
+    }
+
+    private StreamingOutput streamIssues(Iterator<Vertex> hints, String analysisId, GraphMarshallingContext ctx) {
+        return output -> {
+            long issues = 0;
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.writeStartArray();
+                while (hints.hasNext()) {
+                    generator.writeObject(graphMarshaller.convertToMap(ctx, hints.next()));
+                    issues++;
+                }
+                generator.writeEndArray();
+            } finally {
+                graphService.getCentralJanusGraph().tx().rollback();
+            }
+            LOG.infof("Streamed %d hints for application ID %s", issues, analysisId);
+        };
+    }
+
+    /**
+     * The IDs are based on the current time but never repeated, even for the analyses created at the same time
+     */
+    private long nextAnalysisId() {
+        final long now = System.currentTimeMillis();
+        return lastAnalysisId.accumulateAndGet(now, (last, current) -> Math.max(last + 1, current));
+    }
+
+    /**
+     * The analyses whose execution requests have not been sent are cancelled, together with their executions
+     */
+    private void cancelAnalyses(Collection<Long> analysisIds) {
+        if (analysisIds.isEmpty()) return;
+        try {
+            final List<AnalysisCache.Entry> entries = new ArrayList<>(analysisIds.size());
+            for (AnalysisModel analysisModel : graphService.findAnalysisModelsByAnalysisIds(analysisIds)) {
+                GraphService.setStatus(analysisModel, Status.CANCELLED);
+                analysisModel.getWindupExecutions().forEach(windupExecutionModel -> windupExecutionModel.setState(ExecutionState.CANCELLED));
+                entries.add(analysisCache.toEntry(analysisModel));
+            }
+            graphService.getCentralGraphTraversalSource().tx().commit();
+            entries.forEach(analysisCache::put);
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to cancel the %d analyses not submitted", analysisIds.size());
+        } finally {
+            if (graphService.getCentralGraphTraversalSource().tx().isOpen()) graphService.getCentralGraphTraversalSource().tx().rollback();
+        }
+    }
+
+    private static String getFormValue(Map<String, List<InputPart>> parts, String name, String defaultValue) throws IOException {
+        final List<InputPart> values = parts.get(name);
+        return values != null && !values.isEmpty() ? values.get(0).getBodyAsString() : defaultValue;
+    }
+
+    /**
+     * @return the file name, without any path, from the part's {@code Content-Disposition} header, if any
+     */
+    private static String getFileName(InputPart part) {
+        final String contentDisposition = part.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION);
+        if (contentDisposition == null) return null;
+        for (String parameter : contentDisposition.split(";")) {
+            final String trimmedParameter = parameter.trim();
+            if (trimmedParameter.startsWith("filename=")) {
+                final String fileName = StringUtils.strip(trimmedParameter.substring("filename=".length()), "\"");
+                return StringUtils.isNotBlank(fileName) ? Paths.get(fileName).getFileName().toString() : null;
+            }
+        }
+        return null;
+    }
+
+    private GraphMarshallingContext createGraphMarshallingContext(Integer depth, String fields) {
+        if (depth != null && (depth <= 0 || depth > maxDepth)) throw new BadRequestException(String.format("'%s' must be between 1 and %d", QUERY_PARAM_DEPTH, maxDepth));
+        final List<String> fieldList = fields != null ? List.of(StringUtils.split(fields, ',')) : List.of();
+        return graphMarshaller.createGraphMarshallingContext(depth != null ? depth : 1,
+                fieldList.stream().map(String::trim).filter(StringUtils::isNotEmpty).collect(Collectors.toList()));
+    }
+
+    private static String encodeCursor(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            final String decodedCursor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final int separator = decodedCursor.lastIndexOf(CURSOR_SEPARATOR);
+            // the ordinal of the last issue must be a valid positive long
+            if (separator < 0 || !StringUtils.isNumeric(decodedCursor.substring(separator + 1))) throw new IllegalArgumentException();
+            Long.parseLong(decodedCursor.substring(separator + 1));
+            return decodedCursor;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(String.format("Invalid '%s'", QUERY_PARAM_CURSOR));
+        }
+    }
+
     @GET
     @Path("/trigger")
     @Operation(summary = "This method is used to trigger the sample configuration form analysis.", hidden = true)
@@ -303,23 +729,15 @@ public class WindupResource {
         return runAnalysis(analysisRequest);
     }
 
-    private Set<MethodHandler> getMethodHandlers() {
-        final Set<MethodHandler> handlers = new HashSet<>();
-        handlers.add(new MapInPropertiesHandler());
-        handlers.add(new MapInAdjacentPropertiesHandler());
-        handlers.add(new MapInAdjacentVerticesHandler());
-        handlers.add(new SetInPropertiesHandler());
-        handlers.add(new JavaHandlerHandler());
-        handlers.add(new WindupPropertyMethodHandler());
-        handlers.add(new WindupAdjacencyMethodHandler());
-        return handlers;
-    }
-
     private Response runAnalysis(AnalysisModel analysisModel, AnalysisMultipartBody analysisRequest) {
         try {
             windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"INIT\",\"currentTask\":\"Storing application\",\"totalWork\":2,\"workCompleted\":0}", analysisModel.getAnalysisId()));
-            analysisModel.setStatus(Status.INIT);
+            GraphService.setStatus(analysisModel, Status.INIT);
+            AnalysisCache.Entry entry = analysisCache.toEntry(analysisModel);
             graphService.getCentralGraphTraversalSource().tx().commit();
+            analysisCache.put(entry);
+            // a completed analysis run again is no longer part of the portfolio
+            portfolioService.invalidate();
             File application = Paths.get(sharedFolderPath, analysisRequest.applicationFileName).toFile();
             Files.createDirectories(java.nio.file.Path.of(application.getParentFile().getAbsolutePath()));
             Files.copy(
@@ -338,7 +756,10 @@ public class WindupResource {
             final WindupExecutionModel windupExecutionModel = graphService.createFromWindupExecution(windupExecution);
             windupExecutionModel.setApplicationFileName(analysisRequest.applicationFileName);
             analysisModel.addWindupExecution(windupExecutionModel);
+            analysisModel.setLatestTimeQueued(windupExecutionModel.getTimeQueued());
+            entry = analysisCache.toEntry(analysisModel);
             graphService.getCentralGraphTraversalSource().tx().commit();
+            analysisCache.put(entry);
             windupBroadcasterResource.broadcastMessage(String.format("{\"id\":%s,\"state\":\"INIT\",\"currentTask\":\"Analysis waiting to be executed\",\"totalWork\":2,\"workCompleted\":2}", analysisModel.getAnalysisId()));
             return Response
                     .created(URI.create(String.format("/windup/analysis/%d", analysisModel.getAnalysisId())))
@@ -350,137 +771,4 @@ public class WindupResource {
         }
         return Response.serverError().build();
     }
-
-    /**
-     * Heavily inspired from https://github.com/windup/windup-web/blob/8f81bc56d34756ff3a9261edfccbe9b44af40fc2/addons/web-support/impl/src/main/java/org/jboss/windup/web/addons/websupport/rest/graph/AbstractGraphResource.java#L203
-     * @param executionID
-     * @param frames
-     * @param depth
-     * @return
-     */
-    protected List<Map<String, Object>> frameIterableToResult(long executionID, Iterable<? extends WindupVertexFrame> frames, int depth)
-    {
-//        GraphMarshallingContext ctx = new GraphMarshallingContext(executionID, null, depth, false, Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), true);
-
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (WindupVertexFrame frame : frames)
-        {
-            result.add(convertToMap(/*ctx,*/ frame.getElement(), true, depth));
-        }
-        return result;
-    }
-
-    protected Map<String, Object> convertToMap(/*GraphMarshallingContext ctx,*/ Vertex vertex, boolean addEdges, int depth)
-    {
-        Map<String, Object> result = new HashMap<>();
-
-        result.put(GraphResource.TYPE, GraphResource.TYPE_VERTEX);
-        result.put(GraphResource.KEY_ID, vertex.id());
-
-        // Spare CPU cycles, save the planet. Visited vertices will only contain _id.
-/*
-        if (ctx.deduplicateVertices && !ctx.addVisited(vertex))
-            return result;
-*/
-
-        for (String key : vertex.keys()) {
-/*
-            if (ctx.blacklistProperties.contains(key))
-                continue;
-*/
-
-            if (WindupFrame.TYPE_PROP.equals(key)) {
-                List<String> types = new ArrayList<>();
-                Iterator<VertexProperty<String>> typeProperties = vertex.properties(key);
-                while (typeProperties.hasNext())
-                {
-                    types.add(typeProperties.next().value());
-                }
-                result.put(key, types);
-            } else {
-                result.put(key, vertex.property(key).orElse(null));
-            }
-        }
-
-
-        if (addEdges && --depth > 0) {
-            Map<String, Object> outVertices = new HashMap<>();
-            result.put(GraphResource.VERTICES_OUT, outVertices);
-            addEdges(/*ctx,*/ vertex, Direction.OUT, outVertices, depth);
-        }
-
-/*
-        if (ctx.includeInVertices) {
-            Map<String, Object> inVertices = new HashMap<>();
-            result.put(GraphResource.VERTICES_IN, inVertices);
-            addEdges(ctx, vertex, Direction.IN, inVertices);
-        }
-*/
-
-        return result;
-    }
-
-    private void addEdges(/*GraphMarshallingContext ctx,*/ Vertex vertex, Direction direction, Map<String, Object> result, int depth)
-    {
-        final Iterator<Edge> edges = vertex.edges(direction);
-
-        while (edges.hasNext())
-        {
-            Edge edge = edges.next();
-            String label = edge.label();
-
-            Map<String, Object> edgeDetails = (Map<String, Object>) result.get(label);
-            // If the details are already there and we aren't recursing any further, then just skip
-/*
-            if (!whitelistedLabels.contains(label) && edgeDetails != null && ctx.remainingDepth <= 0)
-                continue;
-*/
-
-            final List<Map<String, Object>> linkedVertices;
-            if (edgeDetails == null)
-            {
-                edgeDetails = new HashMap<>();
-                edgeDetails.put(GraphResource.DIRECTION, direction.toString());
-                result.put(label, edgeDetails);
-
-                // If we aren't serializing any further, then just provide a link
-/*
-                if (!whitelistedLabels.contains(label) && ctx.remainingDepth <= 0)
-                {
-                    edgeDetails.put(GraphResource.TYPE, GraphResource.TYPE_LINK);
-                    String linkUri = getLink(ctx.executionID, vertex, direction.toString(), label);
-                    edgeDetails.put(GraphResource.LINK, linkUri);
-                    continue;
-                }
-*/
-
-                linkedVertices = new ArrayList<>();
-                edgeDetails.put(GraphResource.VERTICES, linkedVertices);
-            }
-            else
-            {
-                linkedVertices = (List<Map<String, Object>>) edgeDetails.get(GraphResource.VERTICES);
-            }
-
-            Vertex otherVertex = direction == Direction.OUT ? edge.inVertex() : edge.outVertex();
-
-            // Recursion
-//            ctx.remainingDepth--;
-            Map<String, Object> otherVertexMap = convertToMap(/*ctx,*/ otherVertex, true, depth);
-//            ctx.remainingDepth++;
-
-            // Add edge properties if any
-            if (!edge.keys().isEmpty())
-            {
-                Map<String, Object> edgeData = new HashMap<>();
-                edge.keys().forEach(key -> edgeData.put(key, edge.property(key).orElse(null)));
-                otherVertexMap.put(GraphResource.EDGE_DATA, edgeData);
-
-                /// Add the edge frame's @TypeValue.  Workaround until PR #1063.
-                //edgeData.put(WindupFrame.TYPE_PROP, graphTypeManager.resolveTypes(edge, WindupEdgeFrame.class));
-            }
-
-            linkedVertices.add(otherVertexMap);
-        }
-    }
 }
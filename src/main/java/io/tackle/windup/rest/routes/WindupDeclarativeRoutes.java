@@ -17,7 +17,10 @@ package io.tackle.windup.rest.routes;
 
 import io.quarkus.vertx.web.Route;
 import io.tackle.windup.rest.graph.GraphService;
+import io.tackle.windup.rest.graph.IssuesSnapshotService;
 import io.tackle.windup.rest.resources.WindupResource;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.FileSystemAccess;
 import io.vertx.ext.web.handler.StaticHandler;
@@ -37,6 +40,7 @@ import javax.inject.Inject;
 import javax.ws.rs.core.Response;
 import java.io.FileNotFoundException;
 
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.TEXT_HTML;
 
 @ApplicationScoped
@@ -44,9 +48,15 @@ public class WindupDeclarativeRoutes {
 
     private static final Logger LOG = Logger.getLogger(WindupDeclarativeRoutes.class);
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final String GZIP = "gzip";
+
     @Inject
     GraphService graphService;
 
+    @Inject
+    IssuesSnapshotService issuesSnapshotService;
+
     @ConfigProperty(defaultValue= "index.html", name = "io.tackle.windup.rest.static-report.index.name")
     String indexFileName;
 
@@ -101,4 +111,75 @@ public class WindupDeclarativeRoutes {
                 .create(FileSystemAccess.ROOT, String.format("%s/%s/", graphService.findLatestWindupExecutionOutputPathByAnalysisId(analysisId), reportsFolderName))
                 .handle(routingContext);
     }
+
+    // the issues snapshot written at the end of the merge is served as it is, avoiding to traverse the graph
+    // and to serialize the issues, whereas the requests it can't satisfy go on to the JAX-RS endpoint
+    // that retrieves them from the graph
+    @Operation(hidden = true)
+    @Route(path = "/windup/analysis/:" + WindupResource.PATH_PARAM_ANALYSIS_ID + "/issues", methods = Route.HttpMethod.GET, type = Route.HandlerType.BLOCKING, order = 1)
+    void issuesSnapshot(RoutingContext routingContext) {
+        final String acceptEncoding = routingContext.request().getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (!routingContext.queryParams().isEmpty() || !acceptsGzip(acceptEncoding)) {
+            routingContext.next();
+            return;
+        }
+        final String analysisId = routingContext.pathParam(WindupResource.PATH_PARAM_ANALYSIS_ID);
+        final String accept = routingContext.request().getHeader(HttpHeaders.ACCEPT);
+        final boolean ndjson = accept != null && accept.contains(APPLICATION_NDJSON);
+        final IssuesSnapshotService.Snapshot snapshot = issuesSnapshotService.findSnapshot(analysisId, ndjson);
+        if (snapshot == null) {
+            routingContext.next();
+            return;
+        }
+        LOG.debugf("Retrieving issues for analysis %s from snapshot %s", analysisId, snapshot.path);
+        final HttpServerResponse response = routingContext.response()
+                .putHeader(HttpHeaders.ETAG, snapshot.etag)
+                .putHeader(HttpHeaders.VARY, "Accept, Accept-Encoding");
+        final String ifNoneMatch = routingContext.request().getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(snapshot.etag))) {
+            response.setStatusCode(Response.Status.NOT_MODIFIED.getStatusCode()).end();
+            return;
+        }
+        response.putHeader(HttpHeaders.CONTENT_TYPE, ndjson ? APPLICATION_NDJSON : APPLICATION_JSON)
+                .putHeader(HttpHeaders.CONTENT_ENCODING, GZIP)
+                .sendFile(snapshot.path.toString())
+                .onFailure(throwable -> {
+                    // the snapshot has been replaced in the meantime by a newer one
+                    if (throwable instanceof FileNotFoundException && !response.headWritten()) {
+                        response.headers().remove(HttpHeaders.ETAG).remove(HttpHeaders.VARY)
+                                .remove(HttpHeaders.CONTENT_TYPE).remove(HttpHeaders.CONTENT_ENCODING);
+                        routingContext.next();
+                    }
+                    else routingContext.fail(throwable);
+                });
+    }
+
+    /**
+     * The gzip content coding is acceptable if it's listed, or the wildcard is, with a non-zero q-value
+     * (RFC 7231 section 5.3.4) and an explicit gzip entry takes precedence over the wildcard.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Float gzipQuality = null;
+        Float wildcardQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            final String[] parameters = coding.split(";");
+            final String name = parameters[0].trim();
+            float quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                final String parameter = parameters[i].trim();
+                if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                    try {
+                        quality = Float.parseFloat(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (GZIP.equalsIgnoreCase(name)) gzipQuality = quality;
+            else if ("*".equals(name)) wildcardQuality = quality;
+        }
+        if (gzipQuality != null) return gzipQuality > 0;
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
 }
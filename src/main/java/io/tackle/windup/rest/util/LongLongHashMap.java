@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.util;
+
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Open addressing (linear probing) map from {@code long} keys to {@code long} values.
+ * Keys and values are stored interleaved in a single {@link LongBuffer} so that no boxing happens and the memory
+ * needed is proportional to the number of entries.
+ * The buffer is allocated on the heap or, for the biggest maps, memory-mapped from a temporary file so that it
+ * doesn't weigh on the heap.
+ * This class is not thread-safe.
+ */
+public class LongLongHashMap implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(LongLongHashMap.class);
+    private static final float LOAD_FACTOR = 0.75f;
+    // a single memory-mapped buffer can not be bigger than Integer.MAX_VALUE bytes
+    private static final int MAX_MEMORY_MAPPED_CAPACITY = 1 << 26;
+    private static final int MAX_HEAP_CAPACITY = 1 << 29;
+    private static final long EMPTY_KEY = 0L;
+
+    private final boolean memoryMapped;
+    private LongBuffer table;
+    private Path tableFile;
+    private int capacity;
+    private int size;
+    // 0 is used to mark the empty slots so its value, if any, is stored apart
+    private boolean hasEmptyKey;
+    private long emptyKeyValue;
+
+    public LongLongHashMap(int expectedSize, boolean memoryMapped) throws IOException {
+        this.memoryMapped = memoryMapped;
+        allocate(capacityFor(expectedSize));
+    }
+
+    public void put(long key, long value) throws IOException {
+        if (key == EMPTY_KEY) {
+            if (!hasEmptyKey) size++;
+            hasEmptyKey = true;
+            emptyKeyValue = value;
+            return;
+        }
+        if (size + 1 > capacity * LOAD_FACTOR) resize();
+        final int slot = findSlot(table, capacity, key);
+        if (table.get(slot << 1) == EMPTY_KEY) {
+            table.put(slot << 1, key);
+            size++;
+        }
+        table.put((slot << 1) + 1, value);
+    }
+
+    public long get(long key, long defaultValue) {
+        if (key == EMPTY_KEY) return hasEmptyKey ? emptyKeyValue : defaultValue;
+        final int slot = findSlot(table, capacity, key);
+        return table.get(slot << 1) == EMPTY_KEY ? defaultValue : table.get((slot << 1) + 1);
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY_KEY) return hasEmptyKey;
+        return table.get(findSlot(table, capacity, key) << 1) != EMPTY_KEY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        table = null;
+        deleteTableFile();
+    }
+
+    private static int findSlot(LongBuffer table, int capacity, long key) {
+        final int mask = capacity - 1;
+        int slot = hash(key) & mask;
+        long current;
+        while ((current = table.get(slot << 1)) != EMPTY_KEY && current != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private int capacityFor(int expectedSize) {
+        final int maxCapacity = memoryMapped ? MAX_MEMORY_MAPPED_CAPACITY : MAX_HEAP_CAPACITY;
+        int newCapacity = 16;
+        while (newCapacity * LOAD_FACTOR < expectedSize) {
+            if (newCapacity >= maxCapacity) throw new IllegalStateException(String.format("Unable to store %d entries in a %s map", expectedSize, memoryMapped ? "memory-mapped" : "heap"));
+            newCapacity <<= 1;
+        }
+        return newCapacity;
+    }
+
+    private void allocate(int newCapacity) throws IOException {
+        capacity = newCapacity;
+        if (memoryMapped) {
+            tableFile = Files.createTempFile("windup-api-id-map", ".bin");
+            LOG.debugf("Memory-mapping %d slots from file %s", newCapacity, tableFile);
+            try (FileChannel channel = FileChannel.open(tableFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // the mapped region is zero-filled so every slot starts empty
+                table = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) newCapacity * 2 * Long.BYTES).asLongBuffer();
+            }
+        } else {
+            table = LongBuffer.allocate(newCapacity * 2);
+        }
+    }
+
+    private void resize() throws IOException {
+        final LongBuffer oldTable = table;
+        final int oldCapacity = capacity;
+        final Path oldTableFile = tableFile;
+        allocate(capacityFor(size + 1));
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            final long key = oldTable.get(slot << 1);
+            if (key != EMPTY_KEY) {
+                final int newSlot = findSlot(table, capacity, key);
+                table.put(newSlot << 1, key);
+                table.put((newSlot << 1) + 1, oldTable.get((slot << 1) + 1));
+            }
+        }
+        if (oldTableFile != null) Files.deleteIfExists(oldTableFile);
+    }
+
+    private void deleteTableFile() throws IOException {
+        if (tableFile != null) {
+            Files.deleteIfExists(tableFile);
+            tableFile = null;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph;
+
+import io.quarkus.artemis.test.ArtemisTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.tackle.windup.rest.graph.model.AnalysisModel;
+import io.tackle.windup.rest.graph.model.AnalysisModel.Status;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@QuarkusTestResource(ArtemisTestResource.class)
+public class AnalysisCacheTest {
+
+    private static final AtomicLong ANALYSIS_ID = new AtomicLong(System.currentTimeMillis());
+
+    @Inject
+    GraphService graphService;
+
+    @Inject
+    AnalysisCache analysisCache;
+
+    @Test
+    public void putKeepsTheNewerEntryTest() {
+        final AnalysisModel analysisModel = createAnalysisModel();
+        final AnalysisCache.Entry olderEntry = analysisCache.toEntry(analysisModel);
+        GraphService.setStatus(analysisModel, Status.STARTED);
+        final AnalysisCache.Entry newerEntry = analysisCache.toEntry(analysisModel);
+        graphService.getCentralGraphTraversalSource().tx().commit();
+        assertTrue(newerEntry.version > olderEntry.version);
+
+        // the thread with the older change puts its entry last
+        analysisCache.put(newerEntry);
+        analysisCache.put(olderEntry);
+
+        assertEquals(Status.STARTED.toString(), analysisCache.getStatus(analysisModel.getAnalysisId()).getStatus());
+        assertEquals(newerEntry.version, analysisModel.getVersion());
+        graphService.getCentralGraphTraversalSource().tx().rollback();
+    }
+
+    @Test
+    public void loadDoesNotReplaceANewerEntryTest() {
+        final AnalysisModel analysisModel = createAnalysisModel();
+        final AnalysisCache.Entry olderEntry = analysisCache.toEntry(analysisModel);
+        graphService.getCentralGraphTraversalSource().tx().commit();
+        GraphService.setStatus(analysisModel, Status.COMPLETED);
+        final AnalysisCache.Entry newerEntry = analysisCache.toEntry(analysisModel);
+        graphService.getCentralGraphTraversalSource().tx().commit();
+        analysisCache.put(newerEntry);
+
+        // a reader that has read the analysis before the latest change loads it
+        GraphService.setStatus(analysisModel, Status.INIT);
+        analysisModel.setVersion(olderEntry.version);
+        assertEquals(Status.COMPLETED.toString(), analysisCache.load(analysisModel).status.getStatus());
+        graphService.getCentralGraphTraversalSource().tx().rollback();
+
+        assertEquals(Status.COMPLETED.toString(), analysisCache.getStatus(analysisModel.getAnalysisId()).getStatus());
+    }
+
+    @Test
+    public void loadTheMissingEntryTest() {
+        // an analysis changed without the cache, e.g. before the versions were stored
+        final AnalysisModel analysisModel = createAnalysisModel();
+        graphService.getCentralGraphTraversalSource().tx().commit();
+        assertNull(analysisCache.getStatus(analysisModel.getAnalysisId()));
+
+        assertEquals(Status.INIT.toString(), analysisCache.load(analysisModel).status.getStatus());
+
+        assertEquals(Status.INIT.toString(), analysisCache.getStatus(analysisModel.getAnalysisId()).getStatus());
+        assertEquals(Long.toString(analysisModel.getAnalysisId()), analysisCache.getAnalysis(analysisModel.getAnalysisId()).id);
+        graphService.getCentralGraphTraversalSource().tx().rollback();
+    }
+
+    private AnalysisModel createAnalysisModel() {
+        final AnalysisModel analysisModel = graphService.create(AnalysisModel.class);
+        analysisModel.setAnalysisId(ANALYSIS_ID.incrementAndGet());
+        analysisModel.setCreated(System.currentTimeMillis());
+        analysisModel.setLatestTimeQueued(analysisModel.getCreated());
+        GraphService.setStatus(analysisModel, Status.INIT);
+        return analysisModel;
+    }
+}
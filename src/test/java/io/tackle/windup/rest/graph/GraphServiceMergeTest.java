@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph;
+
+import com.syncleus.ferma.DelegatingFramedGraph;
+import com.syncleus.ferma.FramedGraph;
+import com.syncleus.ferma.ReflectionCache;
+import io.quarkus.artemis.test.ArtemisTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.tackle.windup.rest.graph.model.AnalysisModel;
+import io.tackle.windup.rest.graph.model.ExecutionSummaryModel;
+import io.tackle.windup.rest.graph.model.WindupExecutionModel;
+import org.janusgraph.core.Cardinality;
+import org.janusgraph.core.JanusGraph;
+import org.janusgraph.core.schema.JanusGraphManagement;
+import org.jboss.windup.graph.WindupApiAnnotationFrameFactory;
+import org.jboss.windup.graph.model.WindupConfigurationModel;
+import org.jboss.windup.graph.model.WindupFrame;
+import org.jboss.windup.graph.model.WindupTypeResolver;
+import org.jboss.windup.graph.model.resource.FileModel;
+import org.jboss.windup.reporting.category.IssueCategoryModel;
+import org.jboss.windup.reporting.model.InlineHintModel;
+import org.jboss.windup.rules.apps.java.model.WindupJavaConfigurationModel;
+import org.jboss.windup.util.FurnaceCompositeClassLoader;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Merges a small analysis graph, built by the test, into the central graph with the default "full" merge profile
+ * while {@link GraphServiceMergeSlimTest} runs the same tests with the "slim" one.
+ */
+@QuarkusTest
+@QuarkusTestResource(ArtemisTestResource.class)
+public class GraphServiceMergeTest {
+
+    @Inject
+    GraphService graphService;
+
+    @Test
+    public void createExecutionSummaryTest() throws Exception {
+        final long analysisId = System.currentTimeMillis();
+        final Path sourceGraph = Files.createTempDirectory(Path.of("target"), "source-graph");
+        final Path graphFolder = Files.createDirectories(sourceGraph.resolve("graph"));
+        Files.writeString(graphFolder.resolve("TitanConfiguration.properties"),
+                String.format("storage.backend=berkeleyje%nstorage.directory=%s%n", graphFolder.resolve("titangraph").toAbsolutePath()));
+        try (JanusGraph janusGraph = graphService.openJanusGraph(sourceGraph.toString())) {
+            final JanusGraphManagement management = janusGraph.openManagement();
+            management.makePropertyKey(WindupFrame.TYPE_PROP).dataType(String.class).cardinality(Cardinality.LIST).make();
+            management.commit();
+            final FramedGraph framedGraph = new DelegatingFramedGraph<>(janusGraph,
+                    new WindupApiAnnotationFrameFactory(Thread.currentThread().getContextClassLoader(), new ReflectionCache(), graphService.getMethodHandlers()),
+                    new WindupTypeResolver(new FurnaceCompositeClassLoader(Thread.currentThread().getContextClassLoader(), Collections.emptyList())));
+            framedGraph.addFramedVertex(WindupConfigurationModel.class);
+            framedGraph.addFramedVertex(WindupJavaConfigurationModel.class);
+            final IssueCategoryModel mandatory = createIssueCategory(framedGraph, "Migration Mandatory");
+            final IssueCategoryModel optional = createIssueCategory(framedGraph, "Migration Optional");
+            final FileModel pom = createFile(framedGraph, "/application/pom.xml");
+            final FileModel webXml = createFile(framedGraph, "/application/WEB-INF/web.xml");
+            createHint(framedGraph, "rule-1", 1, mandatory, pom);
+            createHint(framedGraph, "rule-1", 1, mandatory, webXml);
+            createHint(framedGraph, "rule-2", 3, mandatory, webXml);
+            createHint(framedGraph, "rule-3", 0, optional, webXml);
+            janusGraph.tx().commit();
+        }
+
+        final AnalysisModel analysisModel = graphService.create(AnalysisModel.class);
+        analysisModel.setAnalysisId(analysisId);
+        analysisModel.setCreated(analysisId);
+        final WindupExecutionModel windupExecutionModel = graphService.create(WindupExecutionModel.class);
+        windupExecutionModel.setWindupExecutionId(analysisId);
+        windupExecutionModel.setTimeQueued(analysisId);
+        analysisModel.addWindupExecution(windupExecutionModel);
+        graphService.getCentralGraphTraversalSource().tx().commit();
+
+        graphService.updateCentralJanusGraph(sourceGraph.toString(), Long.toString(analysisId), Long.toString(analysisId));
+
+        final ExecutionSummaryModel summary = graphService.findLatestWindupExecutionModelByWindupExecutionId(analysisId).getSummary();
+        assertEquals(4L, summary.getNumberIssues());
+        assertEquals(5L, summary.getTotalEffort());
+        assertEquals(Map.of("Migration Mandatory", 3L, "Migration Optional", 1L), summary.getNumberIssuesPerCategory());
+        assertEquals(Map.of("rule-1", 2L, "rule-2", 1L, "rule-3", 1L), summary.getNumberIssuesPerRule());
+        // even when the files are not merged, their paths are within the issues
+        assertEquals(Map.of("/application/pom.xml", 1L, "/application/WEB-INF/web.xml", 3L), summary.getNumberIssuesPerFile());
+        assertEquals(Map.of("0", 1L, "1", 2L, "3", 1L), summary.getNumberIssuesPerEffort());
+        graphService.getCentralGraphTraversalSource().tx().rollback();
+    }
+
+    private static IssueCategoryModel createIssueCategory(FramedGraph framedGraph, String name) {
+        final IssueCategoryModel issueCategory = framedGraph.addFramedVertex(IssueCategoryModel.class);
+        issueCategory.getElement().property(IssueCategoryModel.NAME, name);
+        return issueCategory;
+    }
+
+    private static FileModel createFile(FramedGraph framedGraph, String filePath) {
+        final FileModel file = framedGraph.addFramedVertex(FileModel.class);
+        file.getElement().property(FileModel.FILE_PATH, filePath);
+        return file;
+    }
+
+    private static void createHint(FramedGraph framedGraph, String ruleId, int effort, IssueCategoryModel issueCategory, FileModel file) {
+        final InlineHintModel hint = framedGraph.addFramedVertex(InlineHintModel.class);
+        hint.setRuleID(ruleId);
+        hint.setTitle(String.format("Issue of %s", ruleId));
+        hint.setHint(String.format("Message of %s", ruleId));
+        hint.setEffort(effort);
+        hint.setIssueCategory(issueCategory);
+        hint.setFile(file);
+    }
+}
@@ -19,6 +19,12 @@ import io.quarkus.artemis.test.ArtemisTestResource;
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
 import io.tackle.windup.rest.graph.model.AnalysisModel;
+import io.tackle.windup.rest.graph.model.WindupExecutionModel;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.jboss.windup.graph.model.WindupFrame;
+import org.jboss.windup.reporting.model.InlineHintModel;
 import org.junit.jupiter.api.Test;
 
 import javax.inject.Inject;
@@ -29,7 +35,14 @@ import static io.tackle.windup.rest.TestsExpectations.SAMPLE_APPLICATION_NUMBER_
 import static io.tackle.windup.rest.TestsExpectations.SAMPLE_APPLICATION_TOTAL_STORY_POINTS;
 import static io.tackle.windup.rest.TestsExpectations.TEST_APPLICATION_NUMBER_ISSUES_PER_CATEGORY;
 import static io.tackle.windup.rest.TestsExpectations.TEST_APPLICATION_TOTAL_STORY_POINTS;
+import static io.tackle.windup.rest.resources.WindupResource.PATH_PARAM_ANALYSIS_ID;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 @QuarkusTestResource(ArtemisTestResource.class)
@@ -61,4 +74,148 @@ public class GraphServiceTest {
         assertEquals(TEST_APPLICATION_TOTAL_STORY_POINTS, analysisModel.getWindupExecutions().get(1).getTotalStoryPoints());
         assertEquals(TEST_APPLICATION_NUMBER_ISSUES_PER_CATEGORY, analysisModel.getWindupExecutions().get(1).getNumberIssuesPerCategory());
     }
+
+    @Test
+    public void backfillAnalysisModelTest() {
+        final AnalysisModel analysisModel = graphService.findAnalysisModelByAnalysisId(1644943527527L);
+        assertEquals(AnalysisModel.Status.COMPLETED.toString(), analysisModel.getLatestStatus());
+        assertEquals(analysisModel.getWindupExecutions().stream().mapToLong(WindupExecutionModel::getTimeQueued).max().orElseThrow(), analysisModel.getLatestTimeQueued());
+        assertTrue(graphService.getAnalysesGraphTraversal(AnalysisModel.Status.COMPLETED).toList().contains(analysisModel.getElement()));
+    }
+
+    @Test
+    public void sweepStaleGenerationsTest() {
+        final long analysisId = System.currentTimeMillis();
+        final String currentGeneration = String.format("%d-%d", analysisId, 2);
+        final GraphTraversalSource graphTraversalSource = graphService.getCentralGraphTraversalSource();
+        // a subgraph merged before the generations were available, a previous generation and the current one
+        final Object legacyVertexId = addIssue(graphTraversalSource, analysisId, null);
+        final Object staleVertexId = addIssue(graphTraversalSource, analysisId, String.format("%d-%d", analysisId, 1));
+        final Object currentVertexId = addIssue(graphTraversalSource, analysisId, currentGeneration);
+        final AnalysisModel analysisModel = graphService.create(AnalysisModel.class);
+        analysisModel.setAnalysisId(analysisId);
+        analysisModel.setGeneration(currentGeneration);
+        graphTraversalSource.tx().commit();
+
+        graphService.sweepStaleGenerations();
+
+        graphTraversalSource.tx().rollback();
+        assertFalse(graphTraversalSource.V(legacyVertexId).hasNext());
+        assertFalse(graphTraversalSource.V(staleVertexId).hasNext());
+        assertTrue(graphTraversalSource.V(currentVertexId).hasNext());
+        graphTraversalSource.tx().rollback();
+    }
+
+    @Test
+    public void deleteAnalysisGraphFromCentralGraphTest() {
+        final long analysisId = System.currentTimeMillis();
+        final String generation = String.format("%d-%d", analysisId, 1);
+        final GraphTraversalSource graphTraversalSource = graphService.getCentralGraphTraversalSource();
+        final Object vertexId = addIssue(graphTraversalSource, analysisId, generation);
+        final AnalysisModel analysisModel = graphService.create(AnalysisModel.class);
+        analysisModel.setAnalysisId(analysisId);
+        analysisModel.setGeneration(generation);
+        graphTraversalSource.tx().commit();
+
+        graphService.deleteAnalysisGraphFromCentralGraph(Long.toString(analysisId));
+
+        // the subgraph is immediately invisible while its vertices are reclaimed by the sweeper
+        assertTrue(GraphService.isTombstone(graphService.findCurrentGeneration(Long.toString(analysisId))));
+        assertFalse(graphService.getAnalysisGraphTraversalByType(InlineHintModel.class, Long.toString(analysisId)).hasNext());
+        assertTrue(graphTraversalSource.V(vertexId).hasNext());
+        graphTraversalSource.tx().rollback();
+
+        graphService.sweepStaleGenerations();
+
+        graphTraversalSource.tx().rollback();
+        assertFalse(graphTraversalSource.V(vertexId).hasNext());
+        graphTraversalSource.tx().rollback();
+    }
+
+    @Test
+    public void checkNotDeletedTest() {
+        final WindupExecutionModel windupExecutionModel = graphService.create(WindupExecutionModel.class);
+        windupExecutionModel.setTimeQueued(1000L);
+        // deleted while the execution was queued or being merged
+        assertThrows(IllegalStateException.class, () -> GraphService.checkNotDeleted("1", GraphService.TOMBSTONE_GENERATION + "-1000", windupExecutionModel));
+        assertThrows(IllegalStateException.class, () -> GraphService.checkNotDeleted("1", GraphService.TOMBSTONE_GENERATION + "-1001", windupExecutionModel));
+        // deleted before being run again
+        assertDoesNotThrow(() -> GraphService.checkNotDeleted("1", GraphService.TOMBSTONE_GENERATION + "-999", windupExecutionModel));
+        // deleted before the time of the deletion was tracked
+        assertDoesNotThrow(() -> GraphService.checkNotDeleted("1", GraphService.TOMBSTONE_GENERATION, windupExecutionModel));
+        assertDoesNotThrow(() -> GraphService.checkNotDeleted("1", "1-1", windupExecutionModel));
+        assertDoesNotThrow(() -> GraphService.checkNotDeleted("1", null, windupExecutionModel));
+        graphService.getCentralGraphTraversalSource().tx().rollback();
+    }
+
+    @Test
+    public void backfillGenerationsTest() {
+        // the analyses of the test central graph have been merged before the generations were available
+        assertEquals("1644943466142-0", graphService.findCurrentGeneration("1644943466142"));
+        assertTrue(graphService.getAnalysisGraphTraversalByType(InlineHintModel.class, "1644943466142").hasNext());
+
+        final long analysisId = System.currentTimeMillis();
+        final GraphTraversalSource graphTraversalSource = graphService.getCentralGraphTraversalSource();
+        final Object vertexId = addIssue(graphTraversalSource, analysisId, null);
+        final AnalysisModel analysisModel = graphService.create(AnalysisModel.class);
+        analysisModel.setAnalysisId(analysisId);
+        final AnalysisModel notMergedAnalysisModel = graphService.create(AnalysisModel.class);
+        notMergedAnalysisModel.setAnalysisId(analysisId + 1);
+        graphTraversalSource.tx().commit();
+
+        graphService.backfillGenerations();
+
+        graphTraversalSource.tx().rollback();
+        final String generation = String.format("%d-%d", analysisId, 0);
+        assertEquals(generation, graphService.findCurrentGeneration(Long.toString(analysisId)));
+        assertEquals(generation, graphTraversalSource.V(vertexId).values(GraphService.GENERATION).next());
+        assertNull(graphService.findCurrentGeneration(Long.toString(analysisId + 1)));
+        graphTraversalSource.tx().rollback();
+    }
+
+    @Test
+    public void backfillIssueKeysTest() {
+        final GraphTraversalSource graphTraversalSource = graphService.getCentralGraphTraversalSource();
+        final InlineHintModel hint = graphService.create(InlineHintModel.class);
+        hint.setTitle("Backfill test title");
+        hint.setHint("Backfill test message");
+        hint.setRuleID("backfill-test-rule");
+        hint.setEffort(3);
+        hint.getElement().property(PATH_PARAM_ANALYSIS_ID, Long.toString(System.currentTimeMillis()));
+        final Object vertexId = hint.getElement().id();
+        graphTraversalSource.tx().commit();
+
+        graphService.backfillIssueKeys();
+
+        graphTraversalSource.tx().rollback();
+        final Vertex issue = graphTraversalSource.V(vertexId).next();
+        assertEquals("Backfill test title", issue.value(GraphService.ISSUE_TITLE));
+        assertEquals("Backfill test message", issue.value(GraphService.ISSUE_MESSAGE));
+        assertEquals("backfill-test-rule", issue.value(GraphService.ISSUE_RULE_ID));
+        assertEquals("backfill-test-rule", issue.value(GraphService.ISSUE_RULE_ID_TEXT));
+        assertEquals(3, issue.<Integer>value(GraphService.ISSUE_EFFORT));
+        assertFalse(issue.property(GraphService.ISSUE_CATEGORY).isPresent());
+        // the ordinal the issues are listed by
+        assertEquals(vertexId, issue.value(GraphService.ISSUE_ORDINAL));
+        graphTraversalSource.V(vertexId).drop().iterate();
+        graphTraversalSource.tx().commit();
+    }
+
+    @Test
+    public void getIssuesVersionTest() {
+        final String version = GraphService.getIssuesVersion(Map.of("1-1", 1L, "2-1", 1L));
+        assertEquals(version, GraphService.getIssuesVersion(Map.of("2-1", 1L, "1-1", 1L)));
+        // a delta merge keeps the generation
+        assertNotEquals(version, GraphService.getIssuesVersion(Map.of("1-1", 2L, "2-1", 1L)));
+        // a deletion tombstones the generation
+        assertNotEquals(version, GraphService.getIssuesVersion(Map.of("1-1", 1L, GraphService.TOMBSTONE_GENERATION + "-2", 1L)));
+    }
+
+    private static Object addIssue(GraphTraversalSource graphTraversalSource, long analysisId, String generation) {
+        final GraphTraversal<Vertex, Vertex> issue = graphTraversalSource.addV()
+                .property(WindupFrame.TYPE_PROP, WindupTypeResolver.getTypeValue(InlineHintModel.class))
+                .property(PATH_PARAM_ANALYSIS_ID, Long.toString(analysisId));
+        if (generation != null) issue.property(GraphService.GENERATION, generation);
+        return issue.next().id();
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph;
+
+import io.quarkus.artemis.test.ArtemisTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.tackle.windup.rest.graph.model.AnalysisModel;
+import io.tackle.windup.rest.graph.model.WindupExecutionModel;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@QuarkusTestResource(ArtemisTestResource.class)
+public class IssuesSnapshotServiceTest {
+
+    @Inject
+    GraphService graphService;
+
+    @Inject
+    IssuesSnapshotService issuesSnapshotService;
+
+    @Test
+    public void deleteStaleSnapshotsTest() throws Exception {
+        final long analysisId = System.currentTimeMillis();
+        final String generation = String.format("%d-%d", analysisId, 1);
+        final Path previousOutputPath = Files.createTempDirectory(Path.of("target"), "previous-execution");
+        final Path outputPath = Files.createTempDirectory(Path.of("target"), "execution");
+        final AnalysisModel analysisModel = graphService.create(AnalysisModel.class);
+        analysisModel.setAnalysisId(analysisId);
+        analysisModel.setGeneration(generation);
+        analysisModel.setIssuesTimeQueued(analysisId + 1);
+        final WindupExecutionModel previousWindupExecutionModel = graphService.create(WindupExecutionModel.class);
+        previousWindupExecutionModel.setTimeQueued(analysisId);
+        previousWindupExecutionModel.setOutputPath(previousOutputPath.toString());
+        analysisModel.addWindupExecution(previousWindupExecutionModel);
+        final WindupExecutionModel windupExecutionModel = graphService.create(WindupExecutionModel.class);
+        windupExecutionModel.setTimeQueued(analysisId + 1);
+        windupExecutionModel.setOutputPath(outputPath.toString());
+        analysisModel.addWindupExecution(windupExecutionModel);
+        graphService.getCentralGraphTraversalSource().tx().commit();
+
+        // the snapshots of the previous execution of the same generation, like after a delta merge, and of a previous generation
+        final Path superseded = Files.createFile(previousOutputPath.resolve(String.format("issues-%s-%d%s", generation, analysisId, IssuesSnapshotService.JSON_EXTENSION)));
+        final Path stale = Files.createFile(outputPath.resolve(String.format("issues-%d-%d-%d%s", analysisId, 0, analysisId, IssuesSnapshotService.NDJSON_EXTENSION)));
+        final Path json = Files.createFile(outputPath.resolve(String.format("issues-%s-%d%s", generation, analysisId + 1, IssuesSnapshotService.JSON_EXTENSION)));
+        final Path ndjson = Files.createFile(outputPath.resolve(String.format("issues-%s-%d%s", generation, analysisId + 1, IssuesSnapshotService.NDJSON_EXTENSION)));
+
+        issuesSnapshotService.deleteStaleSnapshots(Long.toString(analysisId));
+        assertFalse(Files.exists(superseded));
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(json));
+        assertTrue(Files.exists(ndjson));
+
+        // once the analysis has been deleted, none of its snapshots is current
+        graphService.deleteAnalysisGraphFromCentralGraph(Long.toString(analysisId));
+        issuesSnapshotService.deleteStaleSnapshots(Long.toString(analysisId));
+        assertFalse(Files.exists(json));
+        assertFalse(Files.exists(ndjson));
+    }
+}
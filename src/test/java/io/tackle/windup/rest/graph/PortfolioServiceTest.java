@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.graph;
+
+import io.quarkus.artemis.test.ArtemisTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.tackle.windup.rest.dto.PortfolioSummaryDTO;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@QuarkusTestResource(ArtemisTestResource.class)
+public class PortfolioServiceTest {
+
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    @Inject
+    PortfolioService portfolioService;
+
+    @Test
+    public void getPortfolioSummaryTest() throws Exception {
+        portfolioService.invalidate();
+        final PortfolioSummaryDTO portfolioSummary = portfolioService.getPortfolioSummary();
+        // the test central graph contains completed analyses
+        assertTrue(portfolioSummary.numberAnalyses > 0);
+        assertTrue(portfolioSummary.numberIssues > 0);
+        assertTrue(portfolioSummary.numberIssuesPerCategory.containsKey("Migration Mandatory"));
+        assertNotNull(portfolioSummary.timeComputed);
+        // kept until invalidated
+        assertSame(portfolioSummary, portfolioService.getPortfolioSummary());
+    }
+
+    @Test
+    public void invalidateTest() throws Exception {
+        final PortfolioSummaryDTO portfolioSummary = portfolioService.getPortfolioSummary();
+        portfolioService.invalidate();
+        assertNotSame(portfolioSummary, portfolioService.getPortfolioSummary());
+    }
+
+    @Test
+    public void concurrentRequestsShareTheComputationTest() throws Exception {
+        portfolioService.invalidate();
+        final ExecutorService executorService = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        try {
+            final List<Callable<PortfolioSummaryDTO>> requests = new ArrayList<>(CONCURRENT_REQUESTS);
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) requests.add(portfolioService::getPortfolioSummary);
+            final List<Future<PortfolioSummaryDTO>> portfolioSummaries = executorService.invokeAll(requests);
+            // either waiting for the computation in progress or reading its result
+            final PortfolioSummaryDTO portfolioSummary = portfolioSummaries.get(0).get();
+            for (Future<PortfolioSummaryDTO> otherPortfolioSummary : portfolioSummaries) assertSame(portfolioSummary, otherPortfolioSummary.get());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
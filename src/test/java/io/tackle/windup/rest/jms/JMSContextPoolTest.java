@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.jms;
+
+import io.quarkus.artemis.test.ArtemisTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSConsumer;
+import javax.jms.JMSContext;
+import javax.jms.Queue;
+import javax.jms.Session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@QuarkusTest
+@QuarkusTestResource(ArtemisTestResource.class)
+public class JMSContextPoolTest {
+
+    private static final String QUEUE = "jmsContextPoolTestQueue";
+    private static final long RECEIVE_TIMEOUT = 5000;
+
+    @Inject
+    JMSContextPool jmsContextPool;
+
+    @Inject
+    ConnectionFactory connectionFactory;
+
+    @Test
+    public void reusesTheReleasedContextTest() {
+        final JMSContextPool.PooledContext pooledContext = jmsContextPool.borrow();
+        jmsContextPool.release(pooledContext, false);
+
+        final JMSContextPool.PooledContext reusedContext = jmsContextPool.borrow();
+        jmsContextPool.release(reusedContext, false);
+
+        assertSame(pooledContext, reusedContext);
+    }
+
+    @Test
+    public void resetConnectionDiscardsTheIdleContextsTest() {
+        final JMSContextPool.PooledContext pooledContext = jmsContextPool.borrow();
+        jmsContextPool.release(pooledContext, false);
+        final int contexts = jmsContextPool.getContexts();
+        final int idleContexts = jmsContextPool.getIdleContexts();
+
+        jmsContextPool.resetConnection(jmsContextPool.getConnectionGeneration());
+
+        assertEquals(0, jmsContextPool.getIdleContexts());
+        assertEquals(contexts - idleContexts, jmsContextPool.getContexts());
+        // the contexts created with the new connection work
+        final JMSContextPool.PooledContext newContext = jmsContextPool.borrow();
+        try {
+            assertNotSame(pooledContext, newContext);
+            newContext.producer.send(jmsContextPool.getQueue(QUEUE), "after reset");
+        } finally {
+            jmsContextPool.release(newContext, false);
+        }
+        assertEquals("after reset", receive());
+    }
+
+    @Test
+    public void releaseDiscardsTheContextOfAPreviousConnectionTest() {
+        final JMSContextPool.PooledContext pooledContext = jmsContextPool.borrow();
+        jmsContextPool.resetConnection(jmsContextPool.getConnectionGeneration());
+        jmsContextPool.release(pooledContext, false);
+
+        assertEquals(0, jmsContextPool.getIdleContexts());
+        final JMSContextPool.PooledContext newContext = jmsContextPool.borrow();
+        jmsContextPool.release(newContext, false);
+        assertNotSame(pooledContext, newContext);
+    }
+
+    @Test
+    public void releaseBrokenContextResetsTheConnectionTest() {
+        final long connectionGeneration = jmsContextPool.getConnectionGeneration();
+        final long brokenContexts = jmsContextPool.getBrokenContexts();
+        final JMSContextPool.PooledContext pooledContext = jmsContextPool.borrow();
+        jmsContextPool.release(pooledContext, true);
+
+        assertEquals(brokenContexts + 1, jmsContextPool.getBrokenContexts());
+        assertEquals(connectionGeneration + 1, jmsContextPool.getConnectionGeneration());
+        // a context failing with a connection already opened again doesn't drop the new one
+        jmsContextPool.resetConnection(connectionGeneration);
+        assertEquals(connectionGeneration + 1, jmsContextPool.getConnectionGeneration());
+    }
+
+    @Test
+    public void createTransactedContextTest() {
+        try (JMSContext context = jmsContextPool.createTransactedContext()) {
+            context.createProducer().send(jmsContextPool.getQueue(QUEUE), "rolled back");
+            context.rollback();
+            context.createProducer().send(jmsContextPool.getQueue(QUEUE), "committed");
+            context.commit();
+        }
+        assertEquals("committed", receive());
+    }
+
+    private String receive() {
+        try (JMSContext context = connectionFactory.createContext(Session.AUTO_ACKNOWLEDGE)) {
+            final Queue queue = context.createQueue(QUEUE);
+            final JMSConsumer consumer = context.createConsumer(queue);
+            return consumer.receiveBody(String.class, RECEIVE_TIMEOUT);
+        }
+    }
+}
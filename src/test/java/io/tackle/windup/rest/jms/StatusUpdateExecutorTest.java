@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.jms;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatusUpdateExecutorTest {
+
+    private static final int ANALYSES = 10;
+    private static final int UPDATES = 1000;
+    private static final long TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    private static StatusUpdateExecutor createStatusUpdateExecutor(int threads, int queueSize) {
+        final StatusUpdateExecutor statusUpdateExecutor = new StatusUpdateExecutor();
+        statusUpdateExecutor.threads = threads;
+        statusUpdateExecutor.queueSize = queueSize;
+        statusUpdateExecutor.init();
+        return statusUpdateExecutor;
+    }
+
+    @Test
+    public void appliesTheUpdatesOfAnAnalysisInOrderTest() throws InterruptedException {
+        // a queue smaller than the updates makes the submitter wait for room
+        final StatusUpdateExecutor statusUpdateExecutor = createStatusUpdateExecutor(4, 10);
+        final Map<Long, List<Integer>> appliedUpdates = new ConcurrentHashMap<>();
+        for (int update = 0; update < UPDATES; update++) {
+            for (long analysisId = 0; analysisId < ANALYSES; analysisId++) {
+                final long id = analysisId;
+                final int number = update;
+                statusUpdateExecutor.submit(id, () -> appliedUpdates.computeIfAbsent(id, key -> new ArrayList<>()).add(number));
+            }
+        }
+        statusUpdateExecutor.drain(TIMEOUT);
+
+        final List<Integer> expectedUpdates = IntStream.range(0, UPDATES).boxed().collect(Collectors.toList());
+        assertEquals(ANALYSES, appliedUpdates.size());
+        appliedUpdates.values().forEach(updates -> assertEquals(expectedUpdates, updates));
+    }
+
+    @Test
+    public void appliesTheUpdatesOfDifferentAnalysesConcurrentlyTest() throws InterruptedException {
+        final StatusUpdateExecutor statusUpdateExecutor = createStatusUpdateExecutor(2, 10);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicBoolean released = new AtomicBoolean();
+        // the first analysis' update waits for the second analysis' one, on the other stripe
+        statusUpdateExecutor.submit(0, () -> {
+            try {
+                released.set(latch.await(TIMEOUT, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        statusUpdateExecutor.submit(1, latch::countDown);
+        statusUpdateExecutor.drain(TIMEOUT);
+
+        assertTrue(released.get());
+    }
+
+    @Test
+    public void failingUpdateDoesNotStopTheStripeTest() throws InterruptedException {
+        final StatusUpdateExecutor statusUpdateExecutor = createStatusUpdateExecutor(1, 10);
+        final AtomicBoolean applied = new AtomicBoolean();
+        statusUpdateExecutor.submit(0, () -> {
+            throw new IllegalStateException("Failing status update");
+        });
+        statusUpdateExecutor.submit(0, () -> applied.set(true));
+        statusUpdateExecutor.drain(TIMEOUT);
+
+        assertTrue(applied.get());
+    }
+
+    @Test
+    public void drainTest() throws InterruptedException {
+        final StatusUpdateExecutor statusUpdateExecutor = createStatusUpdateExecutor(2, 100);
+        final List<Long> appliedUpdates = new ArrayList<>();
+        for (long analysisId = 0; analysisId < 100; analysisId++) {
+            final long id = analysisId;
+            statusUpdateExecutor.submit(id, () -> {
+                synchronized (appliedUpdates) {
+                    appliedUpdates.add(id);
+                }
+            });
+        }
+        statusUpdateExecutor.drain(TIMEOUT);
+
+        // the updates already submitted are applied while the new ones are rejected
+        assertEquals(100, appliedUpdates.size());
+        assertEquals(0, statusUpdateExecutor.getQueueDepth());
+        assertThrows(RejectedExecutionException.class, () -> statusUpdateExecutor.submit(0, () -> {}));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.jms;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Applies the updates of a failed batch one by one, as the consumer does, with commits and rollbacks that only count
+ */
+public class WindupExecutionStatusConsumerOneByOneTest {
+
+    private final List<String> committedUpdates = new ArrayList<>();
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger rollbacks = new AtomicInteger();
+
+    private Supplier<Runnable> update(String name) {
+        return () -> () -> committedUpdates.add(name);
+    }
+
+    @Test
+    public void failingUpdateTest() {
+        final List<Runnable> onCommitted = WindupExecutionStatusConsumer.applyOneByOne(List.of(
+                        update("first"),
+                        () -> {
+                            throw new IllegalStateException("Failing status update");
+                        },
+                        update("third")),
+                commits::incrementAndGet,
+                rollbacks::incrementAndGet);
+        onCommitted.forEach(Runnable::run);
+
+        assertEquals(List.of("first", "third"), committedUpdates);
+        assertEquals(2, commits.get());
+        assertEquals(1, rollbacks.get());
+    }
+
+    @Test
+    public void failingCommitTest() {
+        final List<Runnable> onCommitted = WindupExecutionStatusConsumer.applyOneByOne(List.of(
+                        update("first"),
+                        update("second"),
+                        update("third")),
+                () -> {
+                    if (commits.incrementAndGet() == 2) throw new IllegalStateException("Failing commit");
+                },
+                rollbacks::incrementAndGet);
+        onCommitted.forEach(Runnable::run);
+
+        // what has to be done once committed isn't done for the update whose commit failed
+        assertEquals(List.of("first", "third"), committedUpdates);
+        assertEquals(3, commits.get());
+        assertEquals(1, rollbacks.get());
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.jms;
+
+import io.quarkus.artemis.test.ArtemisTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.tackle.windup.rest.graph.AnalysisCache;
+import io.tackle.windup.rest.graph.GraphService;
+import io.tackle.windup.rest.graph.model.AnalysisModel;
+import io.tackle.windup.rest.graph.model.AnalysisModel.Status;
+import io.tackle.windup.rest.graph.model.WindupExecutionModel;
+import org.jboss.windup.web.services.json.WindupExecutionJSONUtil;
+import org.jboss.windup.web.services.model.ExecutionState;
+import org.jboss.windup.web.services.model.WindupExecution;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSContext;
+import javax.jms.Session;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Sends the status updates to the consumer as the Windup executor pod does and checks what's applied to the central graph
+ */
+@QuarkusTest
+@QuarkusTestResource(ArtemisTestResource.class)
+public class WindupExecutionStatusConsumerTest {
+
+    private static final AtomicLong ANALYSIS_ID = new AtomicLong(System.currentTimeMillis());
+    private static final String OUTPUT_PATH = "target/shared-graph";
+    private static final int UPDATES = 50;
+
+    @Inject
+    ConnectionFactory connectionFactory;
+
+    @Inject
+    GraphService graphService;
+
+    @Inject
+    AnalysisCache analysisCache;
+
+    @Inject
+    WindupExecutionProducer windupExecutionProducer;
+
+    @Test
+    public void progressUpdatesTest() throws IOException {
+        final WindupExecution windupExecution = createWindupExecution();
+        for (int workCompleted = 1; workCompleted <= UPDATES; workCompleted++) sendStatusUpdate(windupExecution, ExecutionState.STARTED, workCompleted);
+
+        // whether coalesced or not, the latest update is the one applied last
+        await()
+                .pollInterval(100, TimeUnit.MILLISECONDS)
+                .atMost(1, TimeUnit.MINUTES)
+                .until(() -> findWindupExecutionModel(windupExecution).getWorkCompleted() == UPDATES);
+        assertEquals(ExecutionState.STARTED, findWindupExecutionModel(windupExecution).getState());
+        graphService.getCentralGraphTraversalSource().tx().rollback();
+        // the cache entry is written once the update has been committed
+        await()
+                .pollInterval(100, TimeUnit.MILLISECONDS)
+                .atMost(1, TimeUnit.MINUTES)
+                .until(() -> Status.STARTED.toString().equals(analysisCache.getStatus(windupExecution.getId()).getStatus()));
+    }
+
+    @Test
+    public void terminalUpdateTest() throws IOException {
+        final WindupExecution windupExecution = createWindupExecution();
+        for (int workCompleted = 1; workCompleted < UPDATES; workCompleted++) sendStatusUpdate(windupExecution, ExecutionState.STARTED, workCompleted);
+        sendStatusUpdate(windupExecution, ExecutionState.CANCELLED, UPDATES);
+        await()
+                .pollInterval(100, TimeUnit.MILLISECONDS)
+                .atMost(1, TimeUnit.MINUTES)
+                .until(() -> findWindupExecutionModel(windupExecution).getState() == ExecutionState.CANCELLED);
+
+        // a progress update sent before the terminal one but still pending and the terminal update redelivered
+        sendStatusUpdate(windupExecution, ExecutionState.STARTED, UPDATES + 1);
+        sendStatusUpdate(windupExecution, ExecutionState.CANCELLED, UPDATES + 2);
+
+        // once ended, the execution doesn't change anymore
+        await()
+                .during(Duration.ofSeconds(5))
+                .atMost(Duration.ofSeconds(10))
+                .until(() -> {
+                    final WindupExecutionModel windupExecutionModel = findWindupExecutionModel(windupExecution);
+                    return windupExecutionModel.getState() == ExecutionState.CANCELLED && windupExecutionModel.getWorkCompleted() == UPDATES;
+                });
+        graphService.getCentralGraphTraversalSource().tx().rollback();
+    }
+
+    @Test
+    public void failingUpdateTest() throws IOException {
+        // an update for an execution that doesn't exist fails to be applied
+        final WindupExecution missingWindupExecution = new WindupExecution();
+        missingWindupExecution.setId(ANALYSIS_ID.incrementAndGet());
+        sendStatusUpdate(missingWindupExecution, ExecutionState.STARTED, 1);
+        final WindupExecution windupExecution = createWindupExecution();
+        sendStatusUpdate(windupExecution, ExecutionState.STARTED, 1);
+
+        await()
+                .pollInterval(100, TimeUnit.MILLISECONDS)
+                .atMost(1, TimeUnit.MINUTES)
+                .until(() -> findWindupExecutionModel(windupExecution).getState() == ExecutionState.STARTED);
+        graphService.getCentralGraphTraversalSource().tx().rollback();
+    }
+
+    private WindupExecution createWindupExecution() {
+        final long analysisId = ANALYSIS_ID.incrementAndGet();
+        final WindupExecution windupExecution = windupExecutionProducer.createExecutionRequests(Map.of(analysisId, "application.war"),
+                OUTPUT_PATH, "", "eap7", "", false).get(0);
+        final AnalysisModel analysisModel = graphService.create(AnalysisModel.class);
+        analysisModel.setAnalysisId(analysisId);
+        analysisModel.setCreated(System.currentTimeMillis());
+        GraphService.setStatus(analysisModel, Status.INIT);
+        final WindupExecutionModel windupExecutionModel = graphService.createFromWindupExecution(windupExecution);
+        analysisModel.addWindupExecution(windupExecutionModel);
+        analysisModel.setLatestTimeQueued(windupExecutionModel.getTimeQueued());
+        final AnalysisCache.Entry entry = analysisCache.toEntry(analysisModel);
+        graphService.getCentralGraphTraversalSource().tx().commit();
+        analysisCache.put(entry);
+        return windupExecution;
+    }
+
+    private void sendStatusUpdate(WindupExecution windupExecution, ExecutionState state, int workCompleted) throws IOException {
+        windupExecution.setState(state);
+        windupExecution.setCurrentTask(String.format("Task %d", workCompleted));
+        windupExecution.setWorkCompleted(workCompleted);
+        windupExecution.setTotalWork(UPDATES);
+        windupExecution.setLastModified(new GregorianCalendar());
+        if (windupExecution.getTimeStarted() == null) windupExecution.setTimeStarted(new GregorianCalendar());
+        final String lastUpdate = WindupExecutionJSONUtil.serializeToString(windupExecution);
+        try (JMSContext context = connectionFactory.createContext(Session.AUTO_ACKNOWLEDGE)) {
+            context.createProducer().send(context.createQueue("statusUpdateQueue"), lastUpdate);
+        }
+    }
+
+    private WindupExecutionModel findWindupExecutionModel(WindupExecution windupExecution) {
+        // https://github.com/JanusGraph/janusgraph/issues/500#issuecomment-327868102
+        graphService.getCentralGraphTraversalSource().tx().rollback();
+        return graphService.findLatestWindupExecutionModelByWindupExecutionId(windupExecution.getId());
+    }
+}
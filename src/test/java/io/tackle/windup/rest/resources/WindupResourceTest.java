@@ -0,0 +1,483 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.resources;
+
+import io.quarkus.artemis.test.ArtemisTestResource;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+import io.restassured.response.ValidatableResponse;
+import io.restassured.specification.RequestSpecification;
+import io.tackle.windup.rest.graph.GraphService;
+import io.tackle.windup.rest.graph.model.AnalysisModel;
+import io.tackle.windup.rest.graph.model.ExecutionSummaryModel;
+import io.tackle.windup.rest.graph.model.WindupExecutionModel;
+import org.jboss.windup.web.addons.websupport.rest.graph.GraphResource;
+import org.jboss.windup.web.services.model.ExecutionState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static io.tackle.windup.rest.resources.WindupResource.FORM_PARAM_APPLICATION;
+import static io.tackle.windup.rest.resources.WindupResource.HEADER_NEXT_CURSOR;
+import static io.tackle.windup.rest.resources.WindupResource.HEADER_TOTAL_COUNT;
+import static io.tackle.windup.rest.resources.WindupResource.PATH_PARAM_ANALYSIS_ID;
+import static io.tackle.windup.rest.resources.WindupResource.QUERY_PARAM_CATEGORY;
+import static io.tackle.windup.rest.resources.WindupResource.QUERY_PARAM_CURSOR;
+import static io.tackle.windup.rest.resources.WindupResource.QUERY_PARAM_DEPTH;
+import static io.tackle.windup.rest.resources.WindupResource.QUERY_PARAM_FIELDS;
+import static io.tackle.windup.rest.resources.WindupResource.QUERY_PARAM_LIMIT;
+import static io.tackle.windup.rest.resources.WindupResource.QUERY_PARAM_RULE_ID;
+import static io.tackle.windup.rest.resources.WindupResource.QUERY_PARAM_STATUS;
+import static io.tackle.windup.rest.resources.WindupResource.QUERY_PARAM_TEXT;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.CoreMatchers.everyItem;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@QuarkusTestResource(ArtemisTestResource.class)
+public class WindupResourceTest {
+
+    // analyses available in the test central graph
+    private static final String ANALYSIS_ID = "1644943466142";
+    private static final String OTHER_ANALYSIS_ID = "1644943527527";
+    private static final String ISSUES_PATH = "/windup/analysis/{analysisId}/issues";
+    private static final String ISSUES_FACETS_PATH = "/windup/analysis/{analysisId}/issues/facets";
+    private static final String SUMMARY_PATH = "/windup/analysis/{analysisId}/summary/";
+    private static final int PAGE_SIZE = 5;
+    private static final String TEST_APPLICATION = "src/test/resources/samples/Windup1x-javaee-example.war";
+
+    @Inject
+    GraphService graphService;
+
+    @BeforeEach
+    public void waitForIssueKeys() {
+        // the issues of the test central graph get the indexed keys in background at startup
+        await()
+                .pollInterval(1, TimeUnit.SECONDS)
+                .atMost(2, TimeUnit.MINUTES)
+                .until(() -> !getIssuesFacets(Map.of()).getMap(GraphService.FACET_CATEGORY).isEmpty());
+    }
+
+    @Test
+    public void retrieveAnalysesStatusTest() {
+        given()
+                .contentType(ContentType.JSON)
+                .accept(ContentType.JSON)
+                .body(List.of(Long.parseLong(ANALYSIS_ID), Long.parseLong(OTHER_ANALYSIS_ID), 0L))
+                .when()
+                .post("/windup/analysis/status")
+                .then()
+                .statusCode(200)
+                // the analyses not found are not included
+                .body("size()", is(2),
+                        String.format("'%s'.status", ANALYSIS_ID), notNullValue(),
+                        String.format("'%s'.status", OTHER_ANALYSIS_ID), is(AnalysisModel.Status.COMPLETED.toString()));
+    }
+
+    @Test
+    public void retrieveAnalysesStatusBadRequestTest() {
+        given()
+                .contentType(ContentType.JSON)
+                .accept(ContentType.JSON)
+                .body(List.of())
+                .when()
+                .post("/windup/analysis/status")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void retrieveAnalysesTest() {
+        given()
+                .queryParam(QUERY_PARAM_STATUS, AnalysisModel.Status.COMPLETED.toString())
+                .queryParam(QUERY_PARAM_LIMIT, 1)
+                .accept(ContentType.JSON)
+                .when()
+                .get("/windup/analysis/")
+                .then()
+                .statusCode(200)
+                .header(HEADER_TOTAL_COUNT, notNullValue())
+                .body("size()", is(1),
+                        "[0].status", is(AnalysisModel.Status.COMPLETED.toString()));
+
+        given()
+                .queryParam(QUERY_PARAM_STATUS, "UNKNOWN")
+                .accept(ContentType.JSON)
+                .when()
+                .get("/windup/analysis/")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void retrieveAnalysisSummaryOfTombstonedAnalysisTest() {
+        final long analysisId = System.currentTimeMillis();
+        final AnalysisModel analysisModel = graphService.create(AnalysisModel.class);
+        analysisModel.setAnalysisId(analysisId);
+        analysisModel.setCreated(analysisId);
+        GraphService.setStatus(analysisModel, AnalysisModel.Status.COMPLETED);
+        final WindupExecutionModel windupExecutionModel = graphService.create(WindupExecutionModel.class);
+        windupExecutionModel.setTimeQueued(analysisId);
+        final ExecutionSummaryModel executionSummaryModel = graphService.create(ExecutionSummaryModel.class);
+        executionSummaryModel.setNumberIssues(1L);
+        executionSummaryModel.setTotalEffort(1L);
+        windupExecutionModel.setSummary(executionSummaryModel);
+        analysisModel.addWindupExecution(windupExecutionModel);
+        graphService.getCentralGraphTraversalSource().tx().commit();
+
+        given()
+                .pathParam(PATH_PARAM_ANALYSIS_ID, analysisId)
+                .accept(ContentType.JSON)
+                .when()
+                .get(SUMMARY_PATH)
+                .then()
+                .statusCode(200)
+                .body("numberIssues", is(1));
+
+        // cancelled while being deleted: the status isn't DELETED but the analysis has been tombstoned
+        graphService.deleteAnalysisGraphFromCentralGraph(Long.toString(analysisId));
+        GraphService.setStatus(graphService.findAnalysisModelByAnalysisId(analysisId), AnalysisModel.Status.CANCELLED);
+        graphService.getCentralGraphTraversalSource().tx().commit();
+
+        given()
+                .pathParam(PATH_PARAM_ANALYSIS_ID, analysisId)
+                .accept(ContentType.JSON)
+                .when()
+                .get(SUMMARY_PATH)
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    public void issuesFiltersAndFacetsTest() {
+        final Map<String, Integer> numberIssuesPerCategory = getIssuesFacets(Map.of()).getMap(GraphService.FACET_CATEGORY, String.class, Integer.class);
+        numberIssuesPerCategory.forEach((category, numberIssues) -> getIssues(Map.of(QUERY_PARAM_CATEGORY, category))
+                .body("size()", is(numberIssues)));
+
+        final Map<String, Integer> numberIssuesPerRule = getIssuesFacets(Map.of()).getMap(GraphService.FACET_RULE_ID, String.class, Integer.class);
+        assertFalse(numberIssuesPerRule.isEmpty());
+        final Map.Entry<String, Integer> rule = numberIssuesPerRule.entrySet().iterator().next();
+        getIssues(Map.of(QUERY_PARAM_RULE_ID, rule.getKey()))
+                .body("size()", is(rule.getValue()),
+                        GraphService.ISSUE_RULE_ID, everyItem(is(rule.getKey())));
+        // the facets are computed on the filtered issues
+        final Map<String, Integer> numberFilteredIssuesPerRule = getIssuesFacets(Map.of(QUERY_PARAM_RULE_ID, rule.getKey()))
+                .getMap(GraphService.FACET_RULE_ID, String.class, Integer.class);
+        assertEquals(Map.of(rule.getKey(), rule.getValue()), numberFilteredIssuesPerRule);
+    }
+
+    @Test
+    public void issuesFacetsTest() {
+        // the facets count the same issues that are listed
+        final int numberIssues = getIssues(Map.of()).extract().jsonPath().getList(GraphResource.KEY_ID).size();
+        final Map<String, Integer> numberIssuesPerCategory = getIssuesFacets(Map.of()).getMap(GraphService.FACET_CATEGORY, String.class, Integer.class);
+        assertEquals(numberIssues, numberIssuesPerCategory.values().stream().mapToInt(Integer::intValue).sum());
+
+        // an analysis without issues has no facets
+        given()
+                .pathParam(PATH_PARAM_ANALYSIS_ID, 0L)
+                .accept(ContentType.JSON)
+                .when()
+                .get(ISSUES_FACETS_PATH)
+                .then()
+                .statusCode(200)
+                .body(GraphService.FACET_CATEGORY + ".size()", is(0));
+    }
+
+    @Test
+    public void issuesProjectionTest() {
+        final List<Map<String, Object>> issues = getIssues(Map.of(QUERY_PARAM_FIELDS, GraphService.ISSUE_TITLE)).extract().jsonPath().getList("$");
+        assertFalse(issues.isEmpty());
+        final Set<String> fields = Set.of(GraphResource.TYPE, GraphResource.KEY_ID, GraphService.ISSUE_TITLE);
+        issues.forEach(issue -> {
+            assertTrue(fields.containsAll(issue.keySet()), issue.keySet()::toString);
+            assertTrue(issue.containsKey(GraphService.ISSUE_TITLE));
+        });
+
+        getIssues(Map.of(QUERY_PARAM_DEPTH, 0), 400);
+    }
+
+    @Test
+    public void issuesDeduplicationTest() {
+        final List<Map<String, Object>> issues = getIssues(Map.of(QUERY_PARAM_DEPTH, 2)).extract().jsonPath().getList("$");
+        final Set<String> issueIds = new HashSet<>();
+        issues.forEach(issue -> {
+            // each issue, as an element of the response, is complete
+            assertTrue(issue.containsKey(GraphResource.TYPE) && issue.containsKey(GraphResource.VERTICES_OUT));
+            issueIds.add(issue.get(GraphResource.KEY_ID).toString());
+        });
+        final Map<String, Integer> completeOccurrences = new HashMap<>();
+        final Map<String, Integer> occurrences = new HashMap<>();
+        issues.forEach(issue -> addLinkedVertices(issue, completeOccurrences, occurrences));
+        // a vertex shared among the issues, like their category, is serialized complete once within the whole response
+        assertTrue(occurrences.values().stream().anyMatch(numberOccurrences -> numberOccurrences > 1));
+        completeOccurrences.forEach((vertexId, numberOccurrences) -> {
+            if (!issueIds.contains(vertexId)) assertEquals(1, numberOccurrences, String.format("Vertex %s is serialized more than once", vertexId));
+        });
+    }
+
+    @Test
+    public void searchIssuesTest() {
+        final String ruleId = getIssuesFacets(Map.of()).getMap(GraphService.FACET_RULE_ID, String.class, Integer.class).keySet().iterator().next();
+        final List<Map<String, Object>> results = given()
+                .queryParam(QUERY_PARAM_TEXT, ruleId)
+                .queryParam(PATH_PARAM_ANALYSIS_ID, ANALYSIS_ID)
+                .accept(ContentType.JSON)
+                .when()
+                .get("/windup/issue/search")
+                .then()
+                .statusCode(200)
+                .body("size()", greaterThan(0),
+                        PATH_PARAM_ANALYSIS_ID, everyItem(is(ANALYSIS_ID)),
+                        "score", everyItem(notNullValue()))
+                .extract()
+                .jsonPath()
+                .getList("$");
+        assertTrue(results.stream().anyMatch(result -> ruleId.equals(((Map<?, ?>) result.get("issue")).get(GraphService.ISSUE_RULE_ID))));
+
+        // the analyses merged before the generations were available are searched as well
+        given()
+                .queryParam(QUERY_PARAM_TEXT, ruleId)
+                .accept(ContentType.JSON)
+                .when()
+                .get("/windup/issue/search")
+                .then()
+                .statusCode(200)
+                .body(PATH_PARAM_ANALYSIS_ID, hasItem(ANALYSIS_ID));
+
+        given()
+                .queryParam(QUERY_PARAM_TEXT, " ")
+                .accept(ContentType.JSON)
+                .when()
+                .get("/windup/issue/search")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void issuesPaginationTest() {
+        final List<String> issueIds = toStrings(getIssues(Map.of()).extract().jsonPath().getList(GraphResource.KEY_ID));
+        assertTrue(issueIds.size() > PAGE_SIZE);
+
+        final List<String> pagedIssueIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            final RequestSpecification request = given()
+                    .pathParam(PATH_PARAM_ANALYSIS_ID, ANALYSIS_ID)
+                    .queryParam(QUERY_PARAM_LIMIT, PAGE_SIZE)
+                    .accept(ContentType.JSON);
+            if (cursor != null) request.queryParam(QUERY_PARAM_CURSOR, cursor);
+            final ExtractableResponse<Response> page = request
+                    .when()
+                    .get(ISSUES_PATH)
+                    .then()
+                    .statusCode(200)
+                    .extract();
+            final List<String> pageIssueIds = toStrings(page.jsonPath().getList(GraphResource.KEY_ID));
+            assertTrue(pageIssueIds.size() <= PAGE_SIZE);
+            pagedIssueIds.addAll(pageIssueIds);
+            cursor = page.header(HEADER_NEXT_CURSOR);
+        } while (cursor != null);
+
+        // each issue is returned exactly once
+        assertEquals(issueIds.size(), pagedIssueIds.size());
+        assertEquals(new HashSet<>(issueIds), new HashSet<>(pagedIssueIds));
+    }
+
+    @Test
+    public void issuesCursorTest() {
+        getIssues(Map.of(QUERY_PARAM_CURSOR, "not a cursor"), 400);
+        // a cursor created for other issues
+        final String staleCursor = Base64.getUrlEncoder().withoutPadding().encodeToString("1-1:1".getBytes(StandardCharsets.UTF_8));
+        getIssues(Map.of(QUERY_PARAM_CURSOR, staleCursor), 410);
+
+        // the cursor of all the analyses' issues becomes stale as soon as any analysis changes
+        final String cursor = given()
+                .queryParam(QUERY_PARAM_LIMIT, 1)
+                .accept(ContentType.JSON)
+                .when()
+                .get("/windup/issue")
+                .then()
+                .statusCode(200)
+                .extract()
+                .header(HEADER_NEXT_CURSOR);
+        assertNotNull(cursor);
+        given()
+                .queryParam(QUERY_PARAM_CURSOR, cursor)
+                .accept(ContentType.JSON)
+                .when()
+                .get("/windup/issue")
+                .then()
+                .statusCode(200);
+        final long analysisId = System.currentTimeMillis();
+        final AnalysisModel analysisModel = graphService.create(AnalysisModel.class);
+        analysisModel.setAnalysisId(analysisId);
+        analysisModel.setGeneration(String.format("%d-%d", analysisId, 1));
+        graphService.getCentralGraphTraversalSource().tx().commit();
+        graphService.deleteAnalysisGraphFromCentralGraph(Long.toString(analysisId));
+        given()
+                .queryParam(QUERY_PARAM_CURSOR, cursor)
+                .accept(ContentType.JSON)
+                .when()
+                .get("/windup/issue")
+                .then()
+                .statusCode(410);
+    }
+
+    @Test
+    public void retrievePortfolioSummaryTest() {
+        given()
+                .accept(ContentType.JSON)
+                .when()
+                .get("/windup/portfolio/summary")
+                .then()
+                .statusCode(200)
+                .body("numberAnalyses", greaterThan(0),
+                        "numberIssuesPerCategory", notNullValue());
+    }
+
+    @Test
+    public void runAnalysesTest() {
+        final File testApplication = new File(TEST_APPLICATION);
+        assertTrue(testApplication.exists());
+        final List<Long> analysisIds = given()
+                .multiPart(FORM_PARAM_APPLICATION, testApplication)
+                .multiPart(FORM_PARAM_APPLICATION, testApplication)
+                .multiPart("targets", "eap7")
+                .when()
+                .post("/windup/analysis/bulk")
+                .then()
+                .statusCode(201)
+                .body("size()", is(2),
+                        "applicationFileName", everyItem(is(testApplication.getName())))
+                .extract()
+                .jsonPath()
+                .getList("id", Long.class);
+        assertNotEquals(analysisIds.get(0), analysisIds.get(1));
+
+        // the analyses and their executions have been stored before the execution requests have been sent
+        given()
+                .contentType(ContentType.JSON)
+                .accept(ContentType.JSON)
+                .body(analysisIds)
+                .when()
+                .post("/windup/analysis/status")
+                .then()
+                .statusCode(200)
+                .body("size()", is(2),
+                        String.format("'%d'.status", analysisIds.get(0)), is(AnalysisModel.Status.INIT.toString()),
+                        String.format("'%d'.status", analysisIds.get(1)), is(AnalysisModel.Status.INIT.toString()));
+        analysisIds.forEach(analysisId -> given()
+                .pathParam(PATH_PARAM_ANALYSIS_ID, analysisId)
+                .accept(ContentType.JSON)
+                .when()
+                .get("/windup/analysis/{analysisId}/execution/")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1),
+                        "[0].state", is(ExecutionState.QUEUED.toString()),
+                        "[0].applicationFileName", is(testApplication.getName())));
+    }
+
+    @Test
+    public void runAnalysesBadRequestTest() {
+        given()
+                .multiPart("targets", "eap7")
+                .when()
+                .post("/windup/analysis/bulk")
+                .then()
+                .statusCode(400);
+
+        given()
+                .multiPart(FORM_PARAM_APPLICATION, new File(TEST_APPLICATION))
+                .when()
+                .post("/windup/analysis/bulk")
+                .then()
+                .statusCode(400);
+    }
+
+    private static JsonPath getIssuesFacets(Map<String, ?> queryParams) {
+        return given()
+                .pathParam(PATH_PARAM_ANALYSIS_ID, ANALYSIS_ID)
+                .queryParams(queryParams)
+                .accept(ContentType.JSON)
+                .when()
+                .get(ISSUES_FACETS_PATH)
+                .then()
+                .statusCode(200)
+                .extract()
+                .jsonPath();
+    }
+
+    private static ValidatableResponse getIssues(Map<String, ?> queryParams) {
+        return getIssues(queryParams, 200);
+    }
+
+    private static ValidatableResponse getIssues(Map<String, ?> queryParams, int statusCode) {
+        return given()
+                .pathParam(PATH_PARAM_ANALYSIS_ID, ANALYSIS_ID)
+                .queryParams(queryParams)
+                .accept(ContentType.JSON)
+                .when()
+                .get(ISSUES_PATH)
+                .then()
+                .statusCode(statusCode);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addLinkedVertices(Map<String, Object> vertex, Map<String, Integer> completeOccurrences, Map<String, Integer> occurrences) {
+        final Map<String, Map<String, Object>> edges = (Map<String, Map<String, Object>>) vertex.get(GraphResource.VERTICES_OUT);
+        if (edges == null) return;
+        edges.values().forEach(edge -> ((List<Map<String, Object>>) edge.get(GraphResource.VERTICES)).forEach(linkedVertex -> {
+            final String vertexId = linkedVertex.get(GraphResource.KEY_ID).toString();
+            occurrences.merge(vertexId, 1, Integer::sum);
+            if (linkedVertex.containsKey(GraphResource.TYPE)) completeOccurrences.merge(vertexId, 1, Integer::sum);
+            // besides the data of the edge that led to it, a vertex already serialized has only its ID
+            else assertTrue(Set.of(GraphResource.KEY_ID, GraphResource.EDGE_DATA).containsAll(linkedVertex.keySet()), linkedVertex.keySet()::toString);
+            addLinkedVertices(linkedVertex, completeOccurrences, occurrences);
+        }));
+    }
+
+    private static List<String> toStrings(List<Object> values) {
+        final List<String> strings = new ArrayList<>(values.size());
+        values.forEach(value -> strings.add(value.toString()));
+        return strings;
+    }
+}
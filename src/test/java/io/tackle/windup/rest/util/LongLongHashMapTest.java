@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2021 the Konveyor Contributors (https://konveyor.io/)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.tackle.windup.rest.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LongLongHashMapTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void putAndGetTest(boolean memoryMapped) throws IOException {
+        try (LongLongHashMap map = new LongLongHashMap(10, memoryMapped)) {
+            // more entries than expected to go through the resize
+            for (long key = 0; key < 100_000; key++) {
+                map.put(key * 4096, key + 1);
+            }
+            assertEquals(100_000, map.size());
+            for (long key = 0; key < 100_000; key++) {
+                assertEquals(key + 1, map.get(key * 4096, -1L));
+            }
+            assertTrue(map.containsKey(0L));
+            assertFalse(map.containsKey(1L));
+            assertEquals(-1L, map.get(1L, -1L));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void overwriteTest(boolean memoryMapped) throws IOException {
+        try (LongLongHashMap map = new LongLongHashMap(2, memoryMapped)) {
+            map.put(42L, 1L);
+            map.put(42L, 2L);
+            map.put(0L, 3L);
+            map.put(0L, 4L);
+            assertEquals(2, map.size());
+            assertEquals(2L, map.get(42L, -1L));
+            assertEquals(4L, map.get(0L, -1L));
+        }
+    }
+}